@@ -0,0 +1,63 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.model.Role;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.security.JwtKeyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared test data for the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Creates a key store holding one freshly generated signing key in a temporary directory.
+     */
+    static JwtKeyStore jwtKeyStore() {
+        try {
+            JwtKeyStore keyStore = new JwtKeyStore(Files.createTempDirectory("jwt-keys").toString(), 2048,
+                    TimeUnit.DAYS.toMillis(7), TimeUnit.HOURS.toMillis(2), TimeUnit.MINUTES.toMillis(5),
+                    TimeUnit.HOURS.toMillis(1), new SimpleMeterRegistry());
+            keyStore.rotate();
+            return keyStore;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Builds detached users; every tenth one is an admin and every seventh is inactive.
+     *
+     * @param count  the number of users.
+     * @param withId whether to assign IDs, as loaded entities have.
+     */
+    static List<User> users(int count, boolean withId) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            users.add(User.builder()
+                    .id(withId ? (long) i : null)
+                    .name("User " + i)
+                    .email("user" + i + "@example.com")
+                    .password("$2a$10$kUkrVk/1n/ELNOA2GAK2SupfncJSxulJKjovV9rlTV.oN7vKPvEAi")
+                    .roles(i % 10 == 0 ? EnumSet.of(Role.USER, Role.ADMIN) : EnumSet.of(Role.USER))
+                    .createDate(CREATED.plusMinutes(i))
+                    .active(i % 7 != 0)
+                    .build());
+        }
+        return users;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserTokenVersion;
+import com.example.usermanagement.security.JwtAuthenticationFilter;
+import com.example.usermanagement.security.JwtKeyStore;
+import com.example.usermanagement.security.JwtUtils;
+import com.example.usermanagement.security.TokenDenyList;
+import com.example.usermanagement.security.TokenVersionRegistry;
+import com.example.usermanagement.security.VerifiedTokenCache;
+import com.example.usermanagement.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the JWT filter for each way a token can be resolved: a verified-token cache hit,
+ * a self-contained token, and a cache miss that has to load the user. The user lookup is an in-memory
+ * stub, so the miss path measures everything except the database round trip (plus evicting the
+ * cache entry again).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private VerifiedTokenCache tokenCache;
+    private JwtAuthenticationFilter plainFilter;
+    private JwtAuthenticationFilter selfContainedFilter;
+    private MockHttpServletRequest plainRequest;
+    private MockHttpServletRequest selfContainedRequest;
+    private String email;
+
+    @Setup
+    public void setUp() {
+        User user = BenchmarkFixtures.users(1, true).get(0);
+        email = user.getEmail();
+        UserRepository userRepository = stubRepository(user);
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(userRepository);
+        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        TokenVersionRegistry tokenVersions = new TokenVersionRegistry(userRepository, 10_000,
+                TimeUnit.MINUTES.toMillis(1), new SimpleMeterRegistry());
+        TokenDenyList tokenDenyList = new TokenDenyList(new SimpleMeterRegistry());
+        tokenCache = new VerifiedTokenCache(10_000, TimeUnit.MINUTES.toMillis(5), new SimpleMeterRegistry());
+
+        JwtKeyStore keyStore = BenchmarkFixtures.jwtKeyStore();
+
+        JwtUtils plainJwt = new JwtUtils(keyStore, TimeUnit.HOURS.toMillis(1), false);
+        plainFilter = new JwtAuthenticationFilter(plainJwt, userDetailsService, tokenCache, tokenVersions,
+                tokenDenyList);
+        plainRequest = bearer(plainJwt.generateToken(userDetails));
+
+        JwtUtils selfContainedJwt = new JwtUtils(keyStore, TimeUnit.HOURS.toMillis(1), true);
+        selfContainedFilter = new JwtAuthenticationFilter(selfContainedJwt, userDetailsService,
+                new VerifiedTokenCache(10_000, TimeUnit.MINUTES.toMillis(5), new SimpleMeterRegistry()),
+                tokenVersions, tokenDenyList);
+        selfContainedRequest = bearer(selfContainedJwt.generateSelfContainedToken(userDetails, 0));
+    }
+
+    @Benchmark
+    public void cachedToken() throws ServletException, IOException {
+        authenticate(plainFilter, plainRequest);
+    }
+
+    @Benchmark
+    public void selfContainedToken() throws ServletException, IOException {
+        authenticate(selfContainedFilter, selfContainedRequest);
+    }
+
+    @Benchmark
+    public void uncachedToken() throws ServletException, IOException {
+        tokenCache.invalidate(email);
+        authenticate(plainFilter, plainRequest);
+    }
+
+    private static void authenticate(JwtAuthenticationFilter filter, MockHttpServletRequest request)
+            throws ServletException, IOException {
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    /**
+     * Repository that only answers the email lookups done by the user details service and the token
+     * version registry.
+     */
+    private static UserRepository stubRepository(User user) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[] {UserRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findByEmail")) {
+                        return Optional.of(user).filter(u -> u.getEmail().equals(args[0]));
+                    }
+                    if (method.getName().equals("findTokenVersionByEmail")) {
+                        return Optional.of(user).filter(u -> u.getEmail().equals(args[0]))
+                                .map(u -> new UserTokenVersion(u.getId(), u.getTokenVersion()));
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
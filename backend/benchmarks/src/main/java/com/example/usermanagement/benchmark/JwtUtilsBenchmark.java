@@ -0,0 +1,58 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.security.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing and checking tokens through {@link JwtUtils}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    private JwtUtils jwtUtils;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils(BenchmarkFixtures.jwtKeyStore(), TimeUnit.HOURS.toMillis(1), false);
+        userDetails = new User("admin@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        token = jwtUtils.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateSelfContainedToken() {
+        return jwtUtils.generateSelfContainedToken(userDetails, 0);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtUtils.isTokenValid(token, userDetails);
+    }
+}
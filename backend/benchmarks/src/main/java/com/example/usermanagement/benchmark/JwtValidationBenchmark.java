@@ -0,0 +1,90 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.dto.JsonWebKey;
+import com.example.usermanagement.security.JwtKeyStore;
+import com.example.usermanagement.security.JwtUtils;
+import com.example.usermanagement.security.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of validating a JWT the way the filter used to (three parses, each
+ * with a freshly built parser and a public key rebuilt from its published JWK) with the
+ * single-parse {@link JwtUtils#verify} path, which looks the parsed key up by key ID.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private JwtUtils jwtUtils;
+    private JsonWebKey publishedKey;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyStore keyStore = BenchmarkFixtures.jwtKeyStore();
+        jwtUtils = new JwtUtils(keyStore, TimeUnit.HOURS.toMillis(1), false);
+        publishedKey = keyStore.keySet().getKeys().get(0);
+        userDetails = new User("admin@example.com", "password", List.of());
+        token = jwtUtils.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        String username = legacyParse(token).getSubject();
+        boolean sameUser = legacyParse(token).getSubject().equals(userDetails.getUsername());
+        boolean expired = legacyParse(token).getExpiration().before(new Date());
+        return username != null && sameUser && !expired;
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> singleParse() {
+        return jwtUtils.verify(token);
+    }
+
+    private Claims legacyParse(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(publicKey(publishedKey))
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+
+    private static PublicKey publicKey(JsonWebKey jwk) {
+        try {
+            return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(
+                    new BigInteger(1, Base64.getUrlDecoder().decode(jwk.getN())),
+                    new BigInteger(1, Base64.getUrlDecoder().decode(jwk.getE()))));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
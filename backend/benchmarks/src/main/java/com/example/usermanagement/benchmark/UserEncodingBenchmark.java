@@ -0,0 +1,113 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.service.UserService;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding of user lists in each media type the API serves, with and without gzip: the CPU side
+ * of the list endpoints' responses. {@code JSON_WITH_NULLS} is the encoding before null fields
+ * were dropped. Alongside the time, JMH reports {@code encode:bytes} and {@code encode:encodings}, the
+ * bytes written and the lists encoded in the measured iterations; their ratio is the payload size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserEncodingBenchmark {
+
+    public enum Encoding {
+        JSON_WITH_NULLS(new JsonFactory(), JsonInclude.Include.ALWAYS),
+        JSON(new JsonFactory(), JsonInclude.Include.NON_NULL),
+        CBOR(new CBORFactory(), JsonInclude.Include.NON_NULL),
+        SMILE(new SmileFactory(), JsonInclude.Include.NON_NULL);
+
+        private final JsonFactory factory;
+        private final JsonInclude.Include inclusion;
+
+        Encoding(JsonFactory factory, JsonInclude.Include inclusion) {
+            this.factory = factory;
+            this.inclusion = inclusion;
+        }
+    }
+
+    @Param({"100", "1000"})
+    public int size;
+
+    @Param
+    public Encoding encoding;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private List<UserDto> dtos;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        dtos = BenchmarkFixtures.users(size, true).stream().map(UserService::mapToDto).toList();
+        // Same settings as the application's converters
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(encoding.factory)
+                .serializationInclusion(encoding.inclusion)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] encode(EncodedSize encodedSize) throws IOException {
+        byte[] encoded = encode();
+        encodedSize.bytes += encoded.length;
+        encodedSize.encodings++;
+        return encoded;
+    }
+
+    private byte[] encode() throws IOException {
+        if (!gzip) {
+            return objectMapper.writeValueAsBytes(dtos);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, dtos);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Secondary results; JMH zeroes them before each iteration and sums them over threads and
+     * iterations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+
+        public long bytes;
+        public long encodings;
+    }
+}
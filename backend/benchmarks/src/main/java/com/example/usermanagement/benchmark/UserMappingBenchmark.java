@@ -0,0 +1,67 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping and JSON serialization of user lists, the CPU side of the list endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private List<User> users;
+    private List<UserDto> dtos;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        users = BenchmarkFixtures.users(size, true);
+        dtos = users.stream().map(UserService::mapToDto).toList();
+        // Same date handling as the application's response mapper
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Benchmark
+    public List<UserDto> mapToDto() {
+        return users.stream().map(UserService::mapToDto).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users.stream().map(UserService::mapToDto).toList());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.UserManagementApplication;
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.dto.UserFilter;
+import com.example.usermanagement.dto.UserPageResponse;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading every user at once versus keyset-paginated access, through the real service and
+ * repositories against an embedded H2 database seeded with {@code users} rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserQueryBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int SEED_BATCH = 1_000;
+
+    @Param({"1000", "10000"})
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserFilter noFilter;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                // Command-line arguments, so they take precedence over the application's own properties
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        // The migrations are PostgreSQL-specific; H2 gets its schema from the entities
+                        "--spring.flyway.enabled=false",
+                        "--logging.level.root=WARN");
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<User> seed = BenchmarkFixtures.users(users, false);
+        for (int from = 0; from < seed.size(); from += SEED_BATCH) {
+            userRepository.saveAll(seed.subList(from, Math.min(from + SEED_BATCH, seed.size())));
+        }
+        userService = context.getBean(UserService.class);
+        noFilter = new UserFilter();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserDto> getAllUsers() {
+        return userService.getAllUsers();
+    }
+
+    @Benchmark
+    public UserPageResponse firstPage() {
+        return userService.getUserPage(null, PAGE_SIZE, noFilter);
+    }
+
+    @Benchmark
+    public void allPages(Blackhole blackhole) {
+        String cursor = null;
+        do {
+            UserPageResponse page = userService.getUserPage(cursor, PAGE_SIZE, noFilter);
+            blackhole.consume(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+    }
+}
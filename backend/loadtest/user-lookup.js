@@ -0,0 +1,48 @@
+// k6 load test for I/O-bound user lookups.
+// Run once with spring.threads.virtual.enabled=false and once with =true, then compare
+// http_req_duration percentiles, http_reqs rate and the tomcat.threads.busy metric.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=400 loadtest/user-lookup.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const EMAIL = __ENV.EMAIL || 'admin@example.com';
+const PASSWORD = __ENV.PASSWORD || 'admin123';
+const VUS = Number(__ENV.VUS || 400);
+
+export const options = {
+    scenarios: {
+        lookups: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: '2m', target: VUS },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/auth/login`,
+        JSON.stringify({ email: EMAIL, password: PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'logged in': (r) => r.status === 200 });
+    const token = res.json('token');
+    const page = http.get(`${BASE_URL}/api/users/page?size=200`,
+        { headers: { Authorization: `Bearer ${token}` } });
+    const ids = page.json('items').map((user) => user.id);
+    return { token, ids };
+}
+
+export default function (data) {
+    const params = { headers: { Authorization: `Bearer ${data.token}` } };
+    const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+    const res = http.get(`${BASE_URL}/api/users/${id}`, params);
+    check(res, { 'status is 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,31 @@
+package com.example.usermanagement.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * CBOR and Smile encodings of every JSON payload, for clients that ask for them with
+ * {@code Accept: application/cbor} or {@code Accept: application/x-jackson-smile}.
+ * <p>
+ * Both mappers come from the application's {@link Jackson2ObjectMapperBuilder}, so they follow the
+ * same {@code spring.jackson.*} settings as JSON. JSON stays the default for clients that accept
+ * anything.
+ */
+@Configuration
+public class BinaryMessageConvertersConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
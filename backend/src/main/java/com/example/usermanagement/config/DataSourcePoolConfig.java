@@ -0,0 +1,38 @@
+package com.example.usermanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Sizes the Hikari pool from the number of cores in production.
+ * <p>
+ * Uses the PostgreSQL rule of thumb of {@code cores * connections-per-core + 1} connections, and keeps
+ * the pool fixed-size (minimum idle equals maximum) so no connections are opened under load.
+ */
+@Slf4j
+@Configuration
+@Profile("prod")
+public class DataSourcePoolConfig {
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(
+            @Value("${datasource.pool.connections-per-core}") int connectionsPerCore) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    int size = Runtime.getRuntime().availableProcessors() * connectionsPerCore + 1;
+                    dataSource.setMaximumPoolSize(size);
+                    dataSource.setMinimumIdle(size);
+                    log.info("Sized connection pool {} to {} connections", dataSource.getPoolName(), size);
+                }
+                return bean;
+            }
+        };
+    }
+}
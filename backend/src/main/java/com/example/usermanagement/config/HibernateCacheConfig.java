@@ -0,0 +1,58 @@
+package com.example.usermanagement.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local Caffeine-backed JCache regions for the Hibernate second-level cache.
+ * <p>
+ * Every region is bounded by size and expires entries after the configured TTL. Whether the
+ * second-level cache is used at all is controlled by {@code hibernate.cache.use_second_level_cache}.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String USERS_REGION = "users";
+    public static final String USER_ROLES_REGION = "users.roles";
+    public static final String USERS_BY_EMAIL_REGION = "users.by-email";
+
+    private static final List<String> REGIONS = List.of(USERS_REGION, USER_ROLES_REGION, USERS_BY_EMAIL_REGION);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${users.cache.max-size}") long maxSize,
+            @Value("${users.cache.ttl}") long ttlMillis) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+        for (String region : REGIONS) {
+            if (cacheManager.getCache(region) == null) {
+                cacheManager.createCache(region, regionConfiguration(maxSize, ttlMillis));
+            }
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(long maxSize, long ttlMillis) {
+        return new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(maxSize))
+                .setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(ttlMillis)))
+                // Hibernate cache entries are immutable, so copying them on every access is wasted work
+                .setStoreByValue(false);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.dto.AuditFilter;
+import com.example.usermanagement.dto.AuditPageResponse;
+import com.example.usermanagement.service.AuditService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller for reading the audit history.
+ */
+@RestController
+@RequestMapping("/api/audit")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*") // Allow for dev
+public class AuditController {
+
+    private final AuditService auditService;
+
+    /**
+     * Retrieves one page of audit events, newest first.
+     *
+     * @param cursor the cursor returned with the previous page; omit for the first page.
+     * @param size   the page size; defaults to 50 and is capped at 500.
+     * @param filter optional filters on time range (from inclusive, to exclusive), action and user ID.
+     * @return a ResponseEntity containing the page and the cursor of the next one.
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AuditPageResponse> getAuditEvents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            AuditFilter filter) {
+        return ResponseEntity.ok(auditService.getAuditPage(cursor, size, filter));
+    }
+}
@@ -2,9 +2,12 @@ package com.example.usermanagement.controller;
 
 import com.example.usermanagement.dto.AuthRequest;
 import com.example.usermanagement.dto.AuthResponse;
+import com.example.usermanagement.dto.RefreshRequest;
 import com.example.usermanagement.dto.UserDto;
 import com.example.usermanagement.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,6 +20,8 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*") // Allow for dev
 public class AuthController {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final AuthService authService;
 
     /**
@@ -31,13 +36,44 @@ public class AuthController {
     }
 
     /**
-     * Authenticates a user.
+     * Authenticates a user. Clients making too many attempts get 429 with Retry-After.
      *
-     * @param request the AuthRequest containing email and password.
+     * @param request     the AuthRequest containing email and password.
+     * @param httpRequest the servlet request, for the client address.
      * @return a ResponseEntity containing the AuthResponse.
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
-        return ResponseEntity.ok(authService.login(request));
+    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request, HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(authService.login(request, httpRequest.getRemoteAddr()));
+    }
+
+    /**
+     * Exchanges a refresh token for new access and refresh tokens. Invalid, expired or already
+     * used refresh tokens get 401.
+     *
+     * @param request the RefreshRequest containing the refresh token.
+     * @return a ResponseEntity containing the AuthResponse.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody RefreshRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+
+    /**
+     * Ends the session of a refresh token and revokes the access token the request carries.
+     *
+     * @param request       the RefreshRequest containing the refresh token.
+     * @param authorization the Authorization header, if any.
+     * @return an empty ResponseEntity.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestBody(required = false) RefreshRequest request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith(BEARER_PREFIX)
+                ? authorization.substring(BEARER_PREFIX.length())
+                : null;
+        authService.logout(request != null ? request.getRefreshToken() : null, accessToken);
+        return ResponseEntity.noContent().build();
     }
 }
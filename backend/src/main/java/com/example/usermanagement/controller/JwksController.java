@@ -0,0 +1,47 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.dto.JsonWebKeySet;
+import com.example.usermanagement.security.JwtKeyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+
+/**
+ * Controller publishing the public keys that verify the application's tokens.
+ */
+@RestController
+@CrossOrigin(origins = "*") // Allow for dev
+public class JwksController {
+
+    private final JwtKeyStore keyStore;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtKeyStore keyStore, @Value("${jwt.keys.jwks-max-age}") long maxAgeMillis) {
+        this.keyStore = keyStore;
+        this.cacheControl = CacheControl.maxAge(Duration.ofMillis(maxAgeMillis)).cachePublic();
+    }
+
+    /**
+     * Retrieves the JSON Web Key Set: every key whose tokens are still accepted, newest first.
+     * Caches may keep it for {@code jwt.keys.jwks-max-age}; verifiers that meet an unknown key ID
+     * should fetch it again.
+     *
+     * @param ifNoneMatch the ETag of the client's copy, if it has one.
+     * @return a ResponseEntity containing the key set, or 304 if the client's copy is current.
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<JsonWebKeySet> getKeySet(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = keyStore.keySetETag();
+        if (UserETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(keyStore.keySet());
+    }
+}
@@ -1,12 +1,32 @@
 package com.example.usermanagement.controller;
 
+import com.example.usermanagement.dto.UserBatchGetResponse;
+import com.example.usermanagement.dto.UserBatchPatchRequest;
+import com.example.usermanagement.dto.UserBatchRequest;
+import com.example.usermanagement.dto.UserBatchResult;
+import com.example.usermanagement.dto.UserChangesResponse;
 import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.dto.UserFileFormat;
+import com.example.usermanagement.dto.UserFilter;
+import com.example.usermanagement.dto.UserImportResult;
+import com.example.usermanagement.dto.UserPageResponse;
+import com.example.usermanagement.exception.BusinessException;
+import com.example.usermanagement.service.UserBatchService;
+import com.example.usermanagement.service.UserChangeFeed;
+import com.example.usermanagement.service.UserExportService;
+import com.example.usermanagement.service.UserImportService;
 import com.example.usermanagement.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -19,28 +39,123 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
+    private final UserChangeFeed userChangeFeed;
+    private final UserBatchService userBatchService;
 
     /**
      * Retrieves all users.
      *
-     * @return a ResponseEntity containing a list of UserDto.
+     * @param ifNoneMatch the ETag of the client's copy, if it has one.
+     * @return a ResponseEntity containing a list of UserDto, or 304 if the client's copy is current.
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<UserDto>> getAllUsers(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = UserETags.forList(userService.getUserListVersion());
+        if (UserETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return revalidated(HttpStatus.OK, etag).body(userService.getAllUsers());
+    }
+
+    /**
+     * Retrieves one page of users, ordered by ID.
+     *
+     * @param cursor the cursor returned with the previous page; omit for the first page.
+     * @param size   the page size; defaults to 50 and is capped at 200.
+     * @param filter optional filters on active flag, role and creation date range.
+     * @param ifNoneMatch the ETag of the client's copy, if it has one.
+     * @return a ResponseEntity containing the page and the cursor of the next one, or 304 if the
+     *         client's copy is current.
+     */
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<UserPageResponse> getUserPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            UserFilter filter,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = UserETags.forList(userService.getUserListVersion());
+        if (UserETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return revalidated(HttpStatus.OK, etag).body(userService.getUserPage(cursor, size, filter));
+    }
+
+    /**
+     * Searches users by name and email, answered from an in-memory index.
+     *
+     * @param q     the search text; matched by prefix, substring and, failing those, fuzzily.
+     * @param limit the maximum number of results; defaults to 20 and is capped at 100.
+     * @return a ResponseEntity containing the best matching users, best first.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<List<UserDto>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userService.searchUsers(q, limit));
+    }
+
+    /**
+     * Returns the user changes published after a feed position, for incremental synchronisation.
+     * Start by calling without {@code since} to get the current position, take a full export,
+     * then follow the feed from that position.
+     *
+     * @param since the {@code next} position of the previous response; omit to start from now.
+     * @param limit the maximum number of changes; defaults to 100 and is capped at 1000.
+     * @param wait  seconds to wait for changes when there are none yet, at most 30; 0 to answer at once.
+     * @return the changes in feed order and the position to resume from; 410 if changes after
+     *         {@code since} are no longer retained.
+     */
+    @GetMapping("/changes")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public DeferredResult<UserChangesResponse> getUserChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") long wait) {
+        return userChangeFeed.poll(since, limit, wait);
+    }
+
+    /**
+     * Streams every user as NDJSON (default) or CSV, for bulk synchronisation.
+     *
+     * @param format the output format.
+     * @return a ResponseEntity whose body is written while the users are read.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "NDJSON") UserFileFormat format) {
+        StreamingResponseBody body = out -> userExportService.exportUsers(format, out);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + format.getFileExtension())
+                .body(body);
     }
 
     /**
      * Retrieves a user by their ID.
      *
-     * @param id the ID of the user to retrieve.
-     * @return a ResponseEntity containing the UserDto.
+     * @param id          the ID of the user to retrieve.
+     * @param ifNoneMatch the ETag of the client's copy, if it has one.
+     * @return a ResponseEntity containing the UserDto, or 304 if the client's copy is current.
      */
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    public ResponseEntity<UserDto> getUserById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // The ETag comes from the DTO itself, so it always matches the body sent with it
+        UserDto user = userService.getUserById(id);
+        String etag = UserETags.forUser(user.getVersion());
+        if (UserETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return revalidated(HttpStatus.OK, etag).body(user);
     }
 
     /**
@@ -55,17 +170,77 @@ public class UserController {
         return ResponseEntity.ok(userService.createUser(userDto));
     }
 
+    /**
+     * Imports users from an NDJSON or CSV upload. Rows that fail are reported without aborting
+     * the import.
+     *
+     * @param contentType the upload content type, application/x-ndjson or text/csv.
+     * @param body        the upload.
+     * @return a ResponseEntity containing the import report.
+     */
+    @PostMapping(value = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, "text/csv" })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserImportResult> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        UserFileFormat format = UserFileFormat.fromMediaType(contentType)
+                .orElseThrow(() -> new BusinessException("Unsupported import format"));
+        return ResponseEntity.ok(userImportService.importUsers(format, body));
+    }
+
+    /**
+     * Retrieves many users by ID with one query per chunk of IDs.
+     *
+     * @param request the IDs, at most 100000.
+     * @return a ResponseEntity containing the users found, in request order, and the IDs not found.
+     */
+    @PostMapping("/batch/get")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<UserBatchGetResponse> getUsers(@RequestBody UserBatchRequest request) {
+        return ResponseEntity.ok(userBatchService.getUsers(request.getIds()));
+    }
+
+    /**
+     * Sets the active flag of, grants a role to and/or takes a role away from many users.
+     *
+     * @param request the IDs, at most 100000, and the changes to make.
+     * @return a ResponseEntity containing the outcome for each ID.
+     */
+    @PatchMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserBatchResult> patchUsers(@RequestBody UserBatchPatchRequest request) {
+        return ResponseEntity.ok(userBatchService.patchUsers(request));
+    }
+
+    /**
+     * Deletes many users.
+     *
+     * @param request the IDs, at most 100000.
+     * @return a ResponseEntity containing the outcome for each ID.
+     */
+    @PostMapping("/batch/delete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserBatchResult> deleteUsers(@RequestBody UserBatchRequest request) {
+        return ResponseEntity.ok(userBatchService.deleteUsers(request.getIds()));
+    }
+
     /**
      * Updates an existing user.
      *
      * @param id      the ID of the user to update.
      * @param userDto the UserDto containing update data.
-     * @return a ResponseEntity containing the updated UserDto.
+     * @param ifMatch the ETag the client last saw; the update is refused with 412 if the user has
+     *                changed since. Omit to update unconditionally.
+     * @return a ResponseEntity containing the updated UserDto and its new ETag.
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<UserDto> updateUser(@PathVariable Long id, @RequestBody UserDto userDto) {
-        return ResponseEntity.ok(userService.updateUser(id, userDto));
+    public ResponseEntity<UserDto> updateUser(
+            @PathVariable Long id,
+            @RequestBody UserDto userDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserDto updated = userService.updateUser(id, userDto, UserETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(UserETags.forUser(updated.getVersion())).body(updated);
     }
 
     /**
@@ -80,4 +255,12 @@ public class UserController {
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return revalidated(HttpStatus.NOT_MODIFIED, etag).build();
+    }
+
+    private static ResponseEntity.BodyBuilder revalidated(HttpStatus status, String etag) {
+        return ResponseEntity.status(status).eTag(etag).cacheControl(UserETags.REVALIDATE).varyBy(HttpHeaders.ACCEPT);
+    }
 }
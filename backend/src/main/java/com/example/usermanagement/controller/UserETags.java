@@ -0,0 +1,79 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.exception.PreconditionFailedException;
+import org.springframework.http.CacheControl;
+
+/**
+ * ETags of user resources. A user's ETag is its version; the ETag of any list of users is the
+ * version of the user list, which the database bumps on every write, so a response is known to
+ * be unchanged without loading or serialising the users.
+ * <p>
+ * List ETags are weak: they are never used with If-Match, and Tomcat only compresses responses
+ * without a strong ETag. Every ETag stands for the same data in each media type, so responses
+ * vary by Accept.
+ */
+final class UserETags {
+
+    /** Lets private caches keep responses but makes them revalidate every time. */
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private UserETags() {
+    }
+
+    static String forUser(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String forList(long version) {
+        return WEAK_PREFIX + "\"list-" + version + "\"";
+    }
+
+    /**
+     * Checks an If-None-Match header against the current ETag, using weak comparison.
+     *
+     * @param ifNoneMatch the header value, or null if absent.
+     * @param etag        the current ETag.
+     * @return true if the client's copy is current.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.strip();
+            if (tag.equals("*") || stripWeak(tag).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the user version an If-Match header asks for.
+     *
+     * @param ifMatch the header value, or null if absent.
+     * @return the expected version, or null if any version will do.
+     * @throws PreconditionFailedException if the header cannot match any user version.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        // If-Match uses strong comparison, so weak tags never match
+        String tag = ifMatch.strip();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // Falls through to the failure below
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match the current version of the user");
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.usermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEvent {
+    private Long id; // Assigned when the event is written
+    private LocalDateTime occurredAt;
+    private Action action;
+    private String actor; // The authenticated user who acted; null for logins and registrations
+    private Long userId; // The user acted on, if known
+    private String email; // The email acted on, or the one a login was attempted for
+    private String clientIp;
+    private String details;
+
+    public enum Action {
+        LOGIN_SUCCEEDED,
+        LOGIN_FAILED,
+        LOGIN_THROTTLED,
+        REGISTERED,
+        REFRESH_TOKEN_REUSED,
+        USER_CREATED,
+        USER_UPDATED,
+        USER_DELETED
+    }
+}
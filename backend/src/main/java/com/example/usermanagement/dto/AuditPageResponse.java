@@ -0,0 +1,17 @@
+package com.example.usermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditPageResponse {
+    private List<AuditEvent> items; // Newest first
+    private String nextCursor; // Null on the last page
+}
@@ -0,0 +1,22 @@
+package com.example.usermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Public RSA key in JSON Web Key form (RFC 7517).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JsonWebKey {
+    private String kty;
+    private String use;
+    private String alg;
+    private String kid;
+    private String n; // Modulus, base64url
+    private String e; // Public exponent, base64url
+}
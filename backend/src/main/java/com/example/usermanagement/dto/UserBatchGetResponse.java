@@ -0,0 +1,17 @@
+package com.example.usermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchGetResponse {
+    private List<UserDto> users; // In the order the IDs were requested
+    private List<Long> notFound;
+}
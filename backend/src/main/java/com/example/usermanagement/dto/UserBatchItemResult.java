@@ -0,0 +1,23 @@
+package com.example.usermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchItemResult {
+    private Long id;
+    private Status status;
+
+    public enum Status {
+        UPDATED,
+        UNCHANGED, // Already as requested
+        DELETED,
+        NOT_FOUND,
+        FAILED // Its chunk was rolled back
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.usermanagement.dto;
+
+import com.example.usermanagement.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchPatchRequest {
+    private List<Long> ids;
+    private Boolean active; // Null leaves the active flag as it is
+    private Role addRole;
+    private Role removeRole;
+}
@@ -0,0 +1,20 @@
+package com.example.usermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchResult {
+    private int changed; // Updated or deleted
+    private int unchanged;
+    private int notFound;
+    private int failed;
+    private List<UserBatchItemResult> results; // One per distinct ID, in request order
+}
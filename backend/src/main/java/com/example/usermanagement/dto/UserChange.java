@@ -0,0 +1,27 @@
+package com.example.usermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChange {
+    private long eventId; // Stable across redeliveries; use it to drop duplicates
+    private Long position; // Order in the change feed, assigned when the change is published
+    private Type type;
+    private Long userId;
+    private UserDto user; // The user as of this change; for deletions, as it was when deleted
+    private LocalDateTime occurredAt;
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.usermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangesResponse {
+    private List<UserChange> changes;
+    private long next; // Pass back as since to resume after these changes
+}
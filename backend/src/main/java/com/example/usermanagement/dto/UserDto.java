@@ -21,4 +21,5 @@ public class UserDto {
     private Set<Role> roles;
     private LocalDateTime createDate;
     private Boolean active;
+    private Long version; // Read-only; send it back as If-Match when updating
 }
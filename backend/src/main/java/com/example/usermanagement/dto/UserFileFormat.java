@@ -0,0 +1,33 @@
+package com.example.usermanagement.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * File formats supported by the user export and import.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum UserFileFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    /**
+     * Resolves the format for a request content type, ignoring parameters such as charset.
+     *
+     * @param contentType the request content type.
+     * @return the matching format, or empty if the content type is not supported.
+     */
+    public static Optional<UserFileFormat> fromMediaType(MediaType contentType) {
+        return Arrays.stream(values())
+                .filter(format -> format.mediaType.equalsTypeAndSubtype(contentType))
+                .findFirst();
+    }
+}
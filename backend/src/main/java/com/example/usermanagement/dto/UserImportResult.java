@@ -0,0 +1,20 @@
+package com.example.usermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResult {
+    private long processed;
+    private long imported;
+    private long failed;
+    private List<UserImportError> errors;
+    private boolean errorsTruncated; // True if more rows failed than are listed in errors
+}
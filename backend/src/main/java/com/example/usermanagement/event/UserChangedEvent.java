@@ -0,0 +1,19 @@
+package com.example.usermanagement.event;
+
+/**
+ * Application event published when an existing user is modified or removed.
+ *
+ * @param userId             the ID of the affected user.
+ * @param email              the email the user was known by before the change.
+ * @param type               the kind of change.
+ * @param credentialsChanged whether the email, password, roles or active flag changed.
+ * @param emailChanged       whether the email changed.
+ */
+public record UserChangedEvent(Long userId, String email, ChangeType type, boolean credentialsChanged,
+                               boolean emailChanged) {
+
+    public enum ChangeType {
+        UPDATED,
+        DELETED
+    }
+}
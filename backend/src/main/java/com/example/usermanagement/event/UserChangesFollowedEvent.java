@@ -0,0 +1,17 @@
+package com.example.usermanagement.event;
+
+import com.example.usermanagement.dto.UserChange;
+
+import java.util.List;
+
+/**
+ * Application event published on every instance for each batch of user changes it reads from the
+ * change feed, in feed order, wherever the changes were made. Changes made on this instance arrive
+ * again here after their local events, so listeners must apply them idempotently.
+ *
+ * @param changes       the changes.
+ * @param historyLost   whether changes were pruned before this instance read them; listeners
+ *                      should then reload their state instead.
+ */
+public record UserChangesFollowedEvent(List<UserChange> changes, boolean historyLost) {
+}
@@ -0,0 +1,14 @@
+package com.example.usermanagement.event;
+
+import com.example.usermanagement.dto.UserChange;
+
+import java.util.List;
+
+/**
+ * Application event published by the in-process change sink for each batch of user changes the
+ * relay publishes, in feed order.
+ *
+ * @param changes the published changes.
+ */
+public record UserChangesPublishedEvent(List<UserChange> changes) {
+}
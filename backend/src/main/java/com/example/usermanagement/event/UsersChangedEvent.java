@@ -0,0 +1,12 @@
+package com.example.usermanagement.event;
+
+import java.util.List;
+
+/**
+ * Application event published when many existing users are modified or removed at once, by a
+ * batch operation, so that listeners can handle them together.
+ *
+ * @param changes the change to each user.
+ */
+public record UsersChangedEvent(List<UserChangedEvent> changes) {
+}
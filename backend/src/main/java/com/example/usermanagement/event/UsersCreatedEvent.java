@@ -0,0 +1,12 @@
+package com.example.usermanagement.event;
+
+import java.util.List;
+
+/**
+ * Application event published when one or more users are created, by registration, by an
+ * administrator or by an import.
+ *
+ * @param userIds the IDs of the new users.
+ */
+public record UsersCreatedEvent(List<Long> userIds) {
+}
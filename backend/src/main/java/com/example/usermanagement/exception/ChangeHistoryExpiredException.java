@@ -0,0 +1,12 @@
+package com.example.usermanagement.exception;
+
+/**
+ * Thrown when a change feed consumer resumes from a position whose changes are no longer
+ * retained, so it has to resynchronise from a full export.
+ */
+public class ChangeHistoryExpiredException extends RuntimeException {
+
+    public ChangeHistoryExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.usermanagement.exception;
+
+/**
+ * Thrown when a conditional request's precondition, such as an If-Match version, does not hold.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,16 @@
 package com.example.usermanagement.model;
 
+import com.example.usermanagement.config.HibernateCacheConfig;
+import com.example.usermanagement.repository.UserEmailFilterListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -17,16 +23,28 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({ AuditingEntityListener.class, UserEmailFilterListener.class })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USERS_REGION)
+@NaturalIdCache(region = HibernateCacheConfig.USERS_BY_EMAIL_REGION)
 public class User {
 
+    /**
+     * Number of IDs each value of the users.id sequence stands for: a value n reserves the IDs from
+     * n - 49 to n, so that inserts only go to the sequence once per 50 users.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // A sequence (rather than IDENTITY) lets Hibernate batch inserts; it is the users.id BIGSERIAL sequence,
+    // whose increment must match the allocation size
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
     private String name;
 
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String email;
 
@@ -37,6 +55,7 @@ public class User {
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Enumerated(EnumType.STRING)
     @Column(name = "role")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USER_ROLES_REGION)
     private Set<Role> roles;
 
     @CreatedDate
@@ -45,4 +64,12 @@ public class User {
 
     @Column(nullable = false)
     private Boolean active;
+
+    // Bumped on every update, including role changes; backs the user's ETag and If-Match checks
+    @Version
+    private Long version;
+
+    // Bumped when the email, password, roles or active flag change; revokes self-contained tokens
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
 }
@@ -0,0 +1,104 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.dto.AuditEvent;
+import com.example.usermanagement.dto.AuditFilter;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to the append-only audit log.
+ */
+@Repository
+@Timed("audit.repository")
+@RequiredArgsConstructor
+public class AuditRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_log (occurred_at, action, actor, user_id, email, client_ip, details) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_SQL =
+            "SELECT id, occurred_at, action, actor, user_id, email, client_ip, details FROM audit_log WHERE true";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Appends events with one batch.
+     *
+     * @param events the events to write.
+     */
+    public void insertAll(List<AuditEvent> events) {
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (AuditEvent event : events) {
+            rows.add(new Object[] {
+                    Timestamp.valueOf(event.getOccurredAt()),
+                    event.getAction().name(),
+                    event.getActor(),
+                    event.getUserId(),
+                    event.getEmail(),
+                    event.getClientIp(),
+                    event.getDetails()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    /**
+     * Loads one page of events, newest first, using keyset pagination on time and ID.
+     *
+     * @param filter    the filters to apply.
+     * @param afterTime the time of the last event of the previous page, or null for the first page.
+     * @param afterId   the ID of the last event of the previous page; ignored without {@code afterTime}.
+     * @param limit     the maximum number of events.
+     * @return the events.
+     */
+    public List<AuditEvent> findPage(AuditFilter filter, LocalDateTime afterTime, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        if (filter.getFrom() != null) {
+            sql.append(" AND occurred_at >= ?");
+            args.add(Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND occurred_at < ?");
+            args.add(Timestamp.valueOf(filter.getTo()));
+        }
+        if (filter.getAction() != null) {
+            sql.append(" AND action = ?");
+            args.add(filter.getAction().name());
+        }
+        if (filter.getUserId() != null) {
+            sql.append(" AND user_id = ?");
+            args.add(filter.getUserId());
+        }
+        if (afterTime != null) {
+            sql.append(" AND (occurred_at, id) < (?, ?)");
+            args.add(Timestamp.valueOf(afterTime));
+            args.add(afterId);
+        }
+        sql.append(" ORDER BY occurred_at DESC, id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), this::mapRow, args.toArray());
+    }
+
+    private AuditEvent mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return AuditEvent.builder()
+                .id(rs.getLong("id"))
+                .occurredAt(rs.getTimestamp("occurred_at").toLocalDateTime())
+                .action(AuditEvent.Action.valueOf(rs.getString("action")))
+                .actor(rs.getString("actor"))
+                .userId(rs.getObject("user_id", Long.class))
+                .email(rs.getString("email"))
+                .clientIp(rs.getString("client_ip"))
+                .details(rs.getString("details"))
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.usermanagement.repository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC access to refresh tokens, which are looked up by the digest of the token.
+ */
+@Repository
+@Timed("auth.refresh.repository")
+@RequiredArgsConstructor
+public class RefreshTokenRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO refresh_tokens (token_hash, user_id, family_id, issued_at, expires_at, access_token_id, "
+                    + "access_expires_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // Locked so that concurrent refreshes with the same token see each other's rotation
+    private static final String FIND_FOR_UPDATE_SQL =
+            "SELECT id, user_id, family_id, expires_at, used_at, revoked_at FROM refresh_tokens "
+                    + "WHERE token_hash = ? FOR UPDATE";
+    private static final String MARK_USED_SQL = "UPDATE refresh_tokens SET used_at = ? WHERE id = ?";
+    private static final String REVOKE_FAMILY_SQL =
+            "UPDATE refresh_tokens SET revoked_at = ? WHERE family_id = ? AND revoked_at IS NULL "
+                    + "RETURNING access_token_id, access_expires_at";
+    private static final String REVOKE_USERS_SQL =
+            "UPDATE refresh_tokens SET revoked_at = ? WHERE user_id = ANY(?) AND revoked_at IS NULL";
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM refresh_tokens WHERE expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A stored refresh token.
+     *
+     * @param id        the row ID.
+     * @param userId    the user the token was issued to.
+     * @param familyId  the login session the token belongs to.
+     * @param expiresAt when the token expires.
+     * @param used      whether the token has already been exchanged.
+     * @param revoked   whether the token's family has been revoked.
+     */
+    public record StoredRefreshToken(long id, long userId, UUID familyId, LocalDateTime expiresAt,
+            boolean used, boolean revoked) {
+    }
+
+    /**
+     * An access token issued together with a refresh token.
+     *
+     * @param id        the access token ID.
+     * @param expiresAt when the access token expires.
+     */
+    public record AccessTokenRef(UUID id, LocalDateTime expiresAt) {
+    }
+
+    /**
+     * Stores a new refresh token.
+     *
+     * @param tokenHash   the digest of the token.
+     * @param userId      the user the token is issued to.
+     * @param familyId    the login session the token belongs to.
+     * @param issuedAt    when the token was issued.
+     * @param expiresAt   when the token expires.
+     * @param accessToken the access token issued with it.
+     */
+    public void insert(String tokenHash, long userId, UUID familyId, LocalDateTime issuedAt, LocalDateTime expiresAt,
+            AccessTokenRef accessToken) {
+        jdbcTemplate.update(INSERT_SQL, tokenHash, userId, familyId, Timestamp.valueOf(issuedAt),
+                Timestamp.valueOf(expiresAt), accessToken.id(), Timestamp.valueOf(accessToken.expiresAt()));
+    }
+
+    /**
+     * Finds a refresh token and locks it until the end of the transaction.
+     *
+     * @param tokenHash the digest of the token.
+     * @return the token, or empty if it is unknown.
+     */
+    public Optional<StoredRefreshToken> findForUpdate(String tokenHash) {
+        return jdbcTemplate.query(FIND_FOR_UPDATE_SQL, (rs, rowNum) -> new StoredRefreshToken(
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                rs.getObject("family_id", UUID.class),
+                rs.getTimestamp("expires_at").toLocalDateTime(),
+                rs.getTimestamp("used_at") != null,
+                rs.getTimestamp("revoked_at") != null), tokenHash)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Marks a refresh token as exchanged for its successor.
+     *
+     * @param id     the row ID.
+     * @param usedAt when it was exchanged.
+     */
+    public void markUsed(long id, LocalDateTime usedAt) {
+        jdbcTemplate.update(MARK_USED_SQL, Timestamp.valueOf(usedAt), id);
+    }
+
+    /**
+     * Revokes every refresh token of a login session that is not revoked yet.
+     *
+     * @param familyId  the login session.
+     * @param revokedAt when it was revoked.
+     * @return the access tokens issued with the revoked refresh tokens.
+     */
+    public List<AccessTokenRef> revokeFamily(UUID familyId, LocalDateTime revokedAt) {
+        return jdbcTemplate.query(REVOKE_FAMILY_SQL, (rs, rowNum) -> new AccessTokenRef(
+                rs.getObject("access_token_id", UUID.class),
+                rs.getTimestamp("access_expires_at").toLocalDateTime()), Timestamp.valueOf(revokedAt), familyId);
+    }
+
+    /**
+     * Revokes every refresh token of the given users.
+     *
+     * @param userIds   the user IDs.
+     * @param revokedAt when they were revoked.
+     * @return the number of tokens revoked.
+     */
+    public int revokeAllOf(Collection<Long> userIds, LocalDateTime revokedAt) {
+        return jdbcTemplate.update(REVOKE_USERS_SQL, Timestamp.valueOf(revokedAt),
+                userIds.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    /**
+     * Removes refresh tokens, used or not, that have expired.
+     *
+     * @param before the cutoff.
+     * @return the number of tokens removed.
+     */
+    public int deleteExpired(LocalDateTime before) {
+        return jdbcTemplate.update(DELETE_EXPIRED_SQL, Timestamp.valueOf(before));
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.Role;
+import com.example.usermanagement.model.User;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access for bulk writes that would be too slow through the entity manager.
+ * <p>
+ * Uses PostgreSQL-specific SQL (approved for bulk import and batch operations): IDs are reserved
+ * from the users.id sequence in one round trip so that users and their roles can be written with
+ * JDBC batches, and batch updates and deletes take the whole ID set as one array parameter. Since
+ * these statements bypass the entity manager, callers bump user versions themselves and evict the
+ * users from the second-level cache with {@link #evictAfterCommit}.
+ */
+@Repository
+@Timed("users.batch.repository")
+@RequiredArgsConstructor
+public class UserBatchRepository {
+
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval('users_id_seq') FROM generate_series(1, ?)";
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (id, name, email, password, create_date, active) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ROLE_SQL =
+            "INSERT INTO user_roles (user_id, role) VALUES (?, ?)";
+    // Locked in ID order so that overlapping batches cannot deadlock
+    private static final String LOCK_SQL =
+            "SELECT id, email FROM users WHERE id = ANY(?) ORDER BY id FOR UPDATE";
+    private static final String UPDATE_ACTIVE_SQL =
+            "UPDATE users SET active = ? WHERE id = ANY(?) AND active <> ? RETURNING id";
+    private static final String ADD_ROLE_SQL =
+            "INSERT INTO user_roles (user_id, role) SELECT id, ? FROM unnest(?) AS t(id) "
+                    + "ON CONFLICT DO NOTHING RETURNING user_id";
+    private static final String REMOVE_ROLE_SQL =
+            "DELETE FROM user_roles WHERE user_id = ANY(?) AND role = ? RETURNING user_id";
+    private static final String BUMP_VERSIONS_SQL =
+            "UPDATE users SET version = version + 1, token_version = token_version + 1 WHERE id = ANY(?)";
+    private static final String DELETE_ROLES_SQL = "DELETE FROM user_roles WHERE user_id = ANY(?)";
+    private static final String DELETE_USERS_SQL = "DELETE FROM users WHERE id = ANY(?)";
+    private static final String ROLES_ROLE = User.class.getName() + ".roles";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserEmailFilter emailFilter;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Reserves IDs from the users sequence. Like Hibernate, every sequence value is taken as a block
+     * of {@link User#ID_ALLOCATION_SIZE} IDs ending with it, so only one value is drawn per block.
+     *
+     * @param count the number of IDs to reserve.
+     * @return the reserved IDs.
+     */
+    public List<Long> reserveIds(int count) {
+        int blocks = (count + User.ID_ALLOCATION_SIZE - 1) / User.ID_ALLOCATION_SIZE;
+        List<Long> ids = new ArrayList<>(count);
+        for (long last : jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, blocks)) {
+            for (long id = last - User.ID_ALLOCATION_SIZE + 1; id <= last && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts users and their roles with one batch per table. Every user must already have an ID.
+     * Their emails are added to the {@link UserEmailFilter}.
+     *
+     * @param users the users to insert.
+     */
+    public void insertAll(List<User> users) {
+        List<Object[]> userRows = new ArrayList<>(users.size());
+        List<Object[]> roleRows = new ArrayList<>(users.size());
+        for (User user : users) {
+            userRows.add(new Object[] {
+                    user.getId(),
+                    user.getName(),
+                    user.getEmail(),
+                    user.getPassword(),
+                    Timestamp.valueOf(user.getCreateDate()),
+                    user.getActive()
+            });
+            for (Role role : user.getRoles()) {
+                roleRows.add(new Object[] { user.getId(), role.name() });
+            }
+            emailFilter.add(user.getEmail());
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_SQL, userRows);
+        jdbcTemplate.batchUpdate(INSERT_ROLE_SQL, roleRows);
+    }
+
+    /**
+     * Locks the users that exist among the given IDs until the end of the transaction.
+     *
+     * @param ids the IDs.
+     * @return the emails of the users found, by ID in ID order.
+     */
+    public Map<Long, String> lockExisting(Collection<Long> ids) {
+        Map<Long, String> emails = new LinkedHashMap<>();
+        jdbcTemplate.query(LOCK_SQL, rs -> {
+            emails.put(rs.getLong(1), rs.getString(2));
+        }, array(ids));
+        return emails;
+    }
+
+    /**
+     * Sets the active flag of users that do not have it already.
+     *
+     * @param ids    the IDs of existing users.
+     * @param active the new flag.
+     * @return the IDs of the users that changed.
+     */
+    public List<Long> updateActive(Collection<Long> ids, boolean active) {
+        return jdbcTemplate.queryForList(UPDATE_ACTIVE_SQL, Long.class, active, array(ids), active);
+    }
+
+    /**
+     * Grants a role to users that do not have it already.
+     *
+     * @param ids  the IDs of existing users.
+     * @param role the role.
+     * @return the IDs of the users that changed.
+     */
+    public List<Long> addRole(Collection<Long> ids, Role role) {
+        return jdbcTemplate.queryForList(ADD_ROLE_SQL, Long.class, role.name(), array(ids));
+    }
+
+    /**
+     * Takes a role away from users that have it.
+     *
+     * @param ids  the IDs of existing users.
+     * @param role the role.
+     * @return the IDs of the users that changed.
+     */
+    public List<Long> removeRole(Collection<Long> ids, Role role) {
+        return jdbcTemplate.queryForList(REMOVE_ROLE_SQL, Long.class, array(ids), role.name());
+    }
+
+    /**
+     * Increments the versions of users changed by batch statements, as the entity manager would.
+     * Batch statements only change credentials, so the token versions are incremented as well.
+     *
+     * @param ids the IDs of the changed users.
+     */
+    public void bumpVersions(Collection<Long> ids) {
+        jdbcTemplate.update(BUMP_VERSIONS_SQL, (Object) array(ids));
+    }
+
+    /**
+     * Deletes users and their roles.
+     *
+     * @param ids the IDs of the users.
+     */
+    public void deleteAll(Collection<Long> ids) {
+        long[] array = array(ids);
+        jdbcTemplate.update(DELETE_ROLES_SQL, (Object) array);
+        jdbcTemplate.update(DELETE_USERS_SQL, (Object) array);
+    }
+
+    /**
+     * Evicts users and their roles from the second-level cache once the current transaction
+     * commits, so that no reader can cache the old rows again in between.
+     *
+     * @param ids     the IDs of the changed users.
+     * @param deleted whether the users were deleted, which also drops the cached email lookups.
+     */
+    public void evictAfterCommit(Collection<Long> ids, boolean deleted) {
+        List<Long> evicted = List.copyOf(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(evicted, deleted);
+                }
+            });
+        } else {
+            evict(evicted, deleted);
+        }
+    }
+
+    private void evict(List<Long> ids, boolean deleted) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        for (Long id : ids) {
+            cache.evictEntityData(User.class, id);
+            cache.evictCollectionData(ROLES_ROLE, id);
+        }
+        if (deleted) {
+            // Email lookups are keyed by email, so they cannot be evicted by ID
+            cache.evictNaturalIdData(User.class);
+        }
+    }
+
+    private static long[] array(Collection<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
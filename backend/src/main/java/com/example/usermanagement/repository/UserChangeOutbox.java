@@ -0,0 +1,194 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.dto.UserDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to the user change outbox.
+ * <p>
+ * Changes are appended by the transaction that makes them and stay unpublished until the relay
+ * picks them up. Publishing gives each change the next feed position. Only one relay publishes at
+ * a time, held by a transaction-scoped advisory lock, so positions become visible in order and a
+ * consumer that resumes after position N can never miss a change later published below N.
+ */
+@Repository
+@Timed("users.changes.repository")
+@RequiredArgsConstructor
+public class UserChangeOutbox {
+
+    private static final long RELAY_LOCK_KEY = 0x75736572_6368676cL;
+    private static final String INSERT_SQL =
+            "INSERT INTO user_change_outbox (user_id, change_type, payload) VALUES (?, ?, ?::jsonb)";
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+    private static final String UNPUBLISHED_SQL =
+            "SELECT id, user_id, change_type, payload, created_at, position FROM user_change_outbox "
+                    + "WHERE position IS NULL ORDER BY id LIMIT ?";
+    private static final String RESERVE_POSITIONS_SQL =
+            "SELECT nextval('user_change_position_seq') FROM generate_series(1, ?)";
+    private static final String PUBLISH_SQL =
+            "UPDATE user_change_outbox SET position = ?, published_at = now() WHERE id = ?";
+    private static final String PUBLISHED_AFTER_SQL =
+            "SELECT id, user_id, change_type, payload, created_at, position FROM user_change_outbox "
+                    + "WHERE position > ? ORDER BY position LIMIT ?";
+    private static final String PRUNED_THROUGH_SQL =
+            "SELECT pruned_through FROM user_change_retention WHERE id = 1";
+    private static final String LATEST_POSITION_SQL =
+            "SELECT GREATEST(coalesce(max(position), 0), (" + PRUNED_THROUGH_SQL + ")) FROM user_change_outbox";
+    // Deletes a prefix of the feed, so that everything at or below pruned_through is gone
+    private static final String PRUNE_SQL = """
+            WITH cutoff AS (
+                SELECT max(position) AS position FROM user_change_outbox
+                WHERE published_at < now() - ? * interval '1 millisecond'
+            ), deleted AS (
+                DELETE FROM user_change_outbox WHERE position <= (SELECT position FROM cutoff) RETURNING position
+            )
+            UPDATE user_change_retention
+            SET pruned_through = GREATEST(pruned_through, coalesce((SELECT max(position) FROM deleted), 0))
+            WHERE id = 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Appends one change. Must be called in the transaction that makes the change.
+     *
+     * @param type the kind of change.
+     * @param user the user as of the change.
+     */
+    public void append(UserChange.Type type, UserDto user) {
+        appendAll(type, List.of(user));
+    }
+
+    /**
+     * Appends changes of the same kind with one batch. Must be called in the transaction that
+     * makes the changes.
+     *
+     * @param type  the kind of change.
+     * @param users the users as of the change.
+     */
+    public void appendAll(UserChange.Type type, List<UserDto> users) {
+        List<Object[]> rows = new ArrayList<>(users.size());
+        for (UserDto user : users) {
+            rows.add(new Object[] { user.getId(), type.name(), toJson(user) });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    /**
+     * Takes the relay lock for the rest of the current transaction, unless another relay holds it.
+     *
+     * @return true if this transaction may publish.
+     */
+    public boolean tryLockRelay() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_SQL, Boolean.class, RELAY_LOCK_KEY));
+    }
+
+    /**
+     * Loads the oldest unpublished changes, in the order they were appended.
+     *
+     * @param limit the maximum number of changes.
+     * @return the changes, without positions.
+     */
+    public List<UserChange> findUnpublished(int limit) {
+        return jdbcTemplate.query(UNPUBLISHED_SQL, this::mapRow, limit);
+    }
+
+    /**
+     * Gives each change the next feed position, in list order, and marks it published. Must run in
+     * the transaction holding the relay lock.
+     *
+     * @param changes the changes to publish; their positions are set.
+     */
+    public void markPublished(List<UserChange> changes) {
+        List<Long> positions = new ArrayList<>(
+                jdbcTemplate.queryForList(RESERVE_POSITIONS_SQL, Long.class, changes.size()));
+        positions.sort(null);
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (int i = 0; i < changes.size(); i++) {
+            UserChange change = changes.get(i);
+            change.setPosition(positions.get(i));
+            rows.add(new Object[] { change.getPosition(), change.getEventId() });
+        }
+        jdbcTemplate.batchUpdate(PUBLISH_SQL, rows);
+    }
+
+    /**
+     * Loads published changes after a feed position, in feed order.
+     *
+     * @param position the position to read after.
+     * @param limit    the maximum number of changes.
+     * @return the changes.
+     */
+    public List<UserChange> findPublishedAfter(long position, int limit) {
+        return jdbcTemplate.query(PUBLISHED_AFTER_SQL, this::mapRow, position, limit);
+    }
+
+    /**
+     * Returns the highest feed position removed by retention.
+     *
+     * @return the position; 0 if nothing was removed yet.
+     */
+    public long findPrunedThrough() {
+        return jdbcTemplate.queryForObject(PRUNED_THROUGH_SQL, Long.class);
+    }
+
+    /**
+     * Returns the highest feed position published so far.
+     *
+     * @return the position; 0 if nothing was published yet.
+     */
+    public long findLatestPosition() {
+        return jdbcTemplate.queryForObject(LATEST_POSITION_SQL, Long.class);
+    }
+
+    /**
+     * Removes changes published longer ago than the retention period, by the database clock,
+     * always as a prefix of the feed.
+     *
+     * @param retention how long published changes are kept.
+     */
+    public void pruneOlderThan(Duration retention) {
+        jdbcTemplate.update(PRUNE_SQL, retention.toMillis());
+    }
+
+    private UserChange mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return UserChange.builder()
+                .eventId(rs.getLong("id"))
+                .position(rs.getObject("position", Long.class))
+                .type(UserChange.Type.valueOf(rs.getString("change_type")))
+                .userId(rs.getLong("user_id"))
+                .user(fromJson(rs.getString("payload")))
+                .occurredAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .build();
+    }
+
+    private String toJson(UserDto user) {
+        try {
+            return objectMapper.writeValueAsString(user);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private UserDto fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, UserDto.class);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserChangesFollowedEvent;
+import com.example.usermanagement.event.UsersChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over user emails, checked before email lookups so that emails that were never
+ * registered are answered without a query.
+ * <p>
+ * Only {@link UserNaturalIdRepository#findKnownByEmail}, behind login and token lookups, consults the
+ * filter. {@link UserNaturalIdRepository#existsByEmail}, which register and createUser use to reject
+ * duplicate emails, always queries the database, so a user created on another instance but not yet
+ * followed is never registered twice.
+ * <p>
+ * Emails are added, lower-cased, whenever a user is written: once straight away and again after
+ * the transaction commits, so a rebuild running at the same time cannot miss them. Emails written
+ * on other instances are added from the change feed, so a negative answer may be wrong for a user
+ * created elsewhere until that change has been relayed and followed; callers that cannot tolerate
+ * such a miss must query the database. Deleted and replaced emails remain as false positives until
+ * the next rebuild. The filter is built once the application is ready, sized for {@code headroom} times
+ * the current row count at the configured false-positive rate, and rebuilt on a dedicated background
+ * thread once additions, deletions and email changes have used up that headroom. Until it is built
+ * every email passes.
+ * <p>
+ * Publishes {@code users.email.filter.lookups} by result (each negative is a query saved),
+ * {@code users.email.filter.false.positives} and the estimated false-positive rate
+ * {@code users.email.filter.fpp}.
+ */
+@Slf4j
+@Component
+public class UserEmailFilter {
+
+    static final long MIN_CAPACITY = 1024;
+    private static final int REBUILD_PAGE_SIZE = 10_000;
+    private static final String COUNT_SQL = "SELECT count(*) FROM users";
+    private static final String PAGE_SQL = "SELECT id, email FROM users WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String METRIC_NAME = "users.email.filter";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final double fpp;
+    private final double headroom;
+    private final Counter negatives;
+    private final Counter positives;
+    private final Counter falsePositives;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Rebuilds page through the whole users table, so they get their own thread rather than the common pool
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("email-filter-rebuild").daemon().factory());
+    private final Object writeLock = new Object();
+
+    private volatile BloomFilter current;
+    private BloomFilter building;
+
+    public UserEmailFilter(
+            JdbcTemplate jdbcTemplate,
+            @Value("${users.email-filter.enabled}") boolean enabled,
+            @Value("${users.email-filter.fpp}") double fpp,
+            @Value("${users.email-filter.headroom}") double headroom,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.fpp = fpp;
+        this.headroom = Math.max(1.0, headroom);
+        this.negatives = lookups(meterRegistry, "negative");
+        this.positives = lookups(meterRegistry, "positive");
+        this.falsePositives = Counter.builder(METRIC_NAME + ".false.positives")
+                .description("Email lookups the filter let through that found no user")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_NAME + ".fpp", this, UserEmailFilter::estimatedFalsePositiveRate)
+                .description("False-positive rate estimated from the filter's fill")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether a user with this email may exist.
+     *
+     * @param email the email, in any case.
+     * @return false only if no user has this email; true if one may.
+     */
+    public boolean mightContain(String email) {
+        BloomFilter filter = current;
+        if (filter == null || email == null) {
+            return true;
+        }
+        if (filter.mightContain(normalize(email))) {
+            positives.increment();
+            return true;
+        }
+        negatives.increment();
+        return false;
+    }
+
+    /**
+     * Records that a lookup the filter let through found no user.
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * Adds an email that is being written. Called inside the writing transaction; the email is
+     * added again after commit in case a rebuild started in between.
+     *
+     * @param email the email.
+     */
+    public void add(String email) {
+        if (!enabled || email == null) {
+            return;
+        }
+        String key = normalize(email);
+        put(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * Counts deletions and email changes, whose old emails linger in the filter, towards the next
+     * rebuild.
+     *
+     * @param event the user change event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.ChangeType.DELETED || event.emailChanged()) {
+            BloomFilter filter = current;
+            if (filter != null && filter.load.incrementAndGet() > filter.capacity) {
+                rebuildInBackground();
+            }
+        }
+    }
+
+    /**
+     * Counts the deletions and email changes of a batch operation towards the next rebuild.
+     *
+     * @param event the users changed event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        event.changes().forEach(this::onUserChanged);
+    }
+
+    /**
+     * Adds the emails of users created or changed on any instance, as read from the change feed,
+     * and counts deletions towards the next rebuild. Rebuilds if changes were missed.
+     *
+     * @param event the followed changes.
+     */
+    @EventListener
+    public void onChangesFollowed(UserChangesFollowedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.historyLost()) {
+            rebuildInBackground();
+            return;
+        }
+        for (UserChange change : event.changes()) {
+            if (change.getType() == UserChange.Type.DELETED) {
+                BloomFilter filter = current;
+                if (filter != null && filter.load.incrementAndGet() > filter.capacity) {
+                    rebuildInBackground();
+                }
+            } else if (change.getUser() != null && change.getUser().getEmail() != null) {
+                put(normalize(change.getUser().getEmail()));
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the filter from the users table. Lookups keep using the previous filter until the
+     * new one is complete.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Long rows = jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+            BloomFilter filter = new BloomFilter(Math.max(MIN_CAPACITY, (long) (rows * headroom)), fpp);
+            synchronized (writeLock) {
+                building = filter;
+            }
+            long lastId = 0;
+            List<Long> page;
+            do {
+                page = jdbcTemplate.query(PAGE_SQL, (rs, rowNum) -> {
+                    filter.put(normalize(rs.getString(2)));
+                    return rs.getLong(1);
+                }, lastId, REBUILD_PAGE_SIZE);
+                if (!page.isEmpty()) {
+                    lastId = page.get(page.size() - 1);
+                }
+            } while (page.size() == REBUILD_PAGE_SIZE);
+            synchronized (writeLock) {
+                current = filter;
+            }
+            log.info("Built email filter over {} users: {} KiB, {} hashes", rows, filter.words.length() / 128,
+                    filter.hashes);
+        } finally {
+            synchronized (writeLock) {
+                building = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Stops the rebuild thread, abandoning a rebuild in progress.
+     */
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void put(String key) {
+        synchronized (writeLock) {
+            BloomFilter filter = current;
+            if (filter != null && filter.put(key) && filter.load.incrementAndGet() > filter.capacity) {
+                rebuildInBackground();
+            }
+            if (building != null) {
+                building.put(key);
+            }
+        }
+    }
+
+    private void rebuildInBackground() {
+        if (rebuilding.get()) {
+            return;
+        }
+        try {
+            rebuilder.execute(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException ex) {
+                    log.warn("Email filter rebuild failed, keeping the previous filter", ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            log.debug("Email filter rebuild skipped, shutting down");
+        }
+    }
+
+    private double estimatedFalsePositiveRate() {
+        BloomFilter filter = current;
+        return filter == null ? Double.NaN : filter.estimatedFalsePositiveRate();
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC_NAME + ".lookups")
+                .description("Email lookups checked against the filter; negatives skip the database")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lock-free Bloom filter with k indexes derived from one 64-bit hash by double hashing.
+     * {@code load} counts entries that set new bits plus removals since the build.
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+        private final long capacity;
+        private final AtomicLong load = new AtomicLong();
+        private final AtomicLong bitsSet = new AtomicLong();
+
+        BloomFilter(long capacity, double fpp) {
+            double ln2 = Math.log(2);
+            long requested = (long) Math.ceil(-capacity * Math.log(fpp) / (ln2 * ln2));
+            this.words = new AtomicLongArray((int) Math.max(1, (requested + 63) >>> 6));
+            this.bits = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * ln2));
+            this.capacity = capacity;
+        }
+
+        boolean put(String key) {
+            long hash = hash(key);
+            long step = (hash >>> 32) | 1;
+            boolean changed = false;
+            for (int i = 0; i < hashes; i++, hash += step) {
+                long index = (hash & Long.MAX_VALUE) % bits;
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                if ((words.get(word) & mask) == 0
+                        && (words.getAndAccumulate(word, mask, (a, b) -> a | b) & mask) == 0) {
+                    bitsSet.incrementAndGet();
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            long step = (hash >>> 32) | 1;
+            for (int i = 0; i < hashes; i++, hash += step) {
+                long index = (hash & Long.MAX_VALUE) % bits;
+                if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double estimatedFalsePositiveRate() {
+            return Math.pow((double) bitsSet.get() / bits, hashes);
+        }
+
+        private static long hash(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h = (h ^ key.charAt(i)) * 0x100000001b3L;
+            }
+            h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+            h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return h ^ (h >>> 33);
+        }
+    }
+}
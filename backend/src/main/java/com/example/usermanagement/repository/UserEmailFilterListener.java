@@ -0,0 +1,22 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.User;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Entity listener that adds the email of every inserted or updated user to the
+ * {@link UserEmailFilter}. Instantiated by Hibernate through Spring's bean container.
+ */
+@RequiredArgsConstructor
+public class UserEmailFilterListener {
+
+    private final UserEmailFilter emailFilter;
+
+    @PrePersist
+    @PreUpdate
+    void addEmail(User user) {
+        emailFilter.add(user.getEmail());
+    }
+}
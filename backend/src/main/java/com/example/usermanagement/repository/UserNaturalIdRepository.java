@@ -0,0 +1,24 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.User;
+
+import java.util.Optional;
+
+/**
+ * Email lookups resolved through Hibernate's natural-id API, so they are served from the
+ * second-level cache when possible instead of always querying the database. Emails are matched
+ * case-insensitively.
+ */
+public interface UserNaturalIdRepository {
+
+    Optional<User> findByEmail(String email);
+
+    boolean existsByEmail(String email);
+
+    /**
+     * Like {@link #findByEmail}, but answers emails the {@link UserEmailFilter} has never seen
+     * without a query. May miss a user created on another instance until the change reaches this
+     * one, so only use it where such a miss is harmless.
+     */
+    Optional<User> findKnownByEmail(String email);
+}
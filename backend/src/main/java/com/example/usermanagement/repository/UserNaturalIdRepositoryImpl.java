@@ -0,0 +1,50 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.User;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    private final EntityManager entityManager;
+    private final UserEmailFilter emailFilter;
+
+    /**
+     * Resolves the exact email through the natural-id cache first; only a miss falls back to a
+     * case-insensitive query, which is served by the lower(email) index.
+     */
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email)
+                .or(() -> entityManager
+                        .createQuery("select u from User u where lower(u.email) = lower(:email)", User.class)
+                        .setParameter("email", email)
+                        .getResultStream()
+                        .findFirst());
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return findByEmail(email).isPresent();
+    }
+
+    @Override
+    public Optional<User> findKnownByEmail(String email) {
+        if (!emailFilter.mightContain(email)) {
+            return Optional.empty();
+        }
+        Optional<User> user = findByEmail(email);
+        if (user.isEmpty()) {
+            emailFilter.recordFalsePositive();
+        }
+        return user;
+    }
+}
@@ -1,14 +1,107 @@
 package com.example.usermanagement.repository;
 
+import com.example.usermanagement.model.Role;
 import com.example.usermanagement.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
 
-    boolean existsByEmail(String email);
+    String SUMMARY_SELECT = """
+            select u.id as id, u.name as name, u.email as email, u.create_date as createDate,
+                   u.active as active, u.version as version, string_agg(r.role, ',' order by r.role) as roles
+            from users u left join user_roles r on r.user_id = u.id""";
+    String SUMMARY_GROUP_BY = "u.id, u.name, u.email, u.create_date, u.active, u.version";
+
+    /**
+     * Replaces a user's password hash without loading the entity.
+     *
+     * @return the number of updated rows.
+     */
+    @Modifying
+    @Query("update User u set u.password = :password where u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+
+    /**
+     * Returns which of the given lower-cased emails are already registered in any case,
+     * lower-cased. Served by the unique lower(email) index.
+     */
+    @Query("select lower(u.email) from User u where lower(u.email) in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Returns the token version of the user registered with exactly this email. Served by the
+     * unique email index.
+     */
+    @Query("""
+            select new com.example.usermanagement.repository.UserTokenVersion(u.id, u.tokenVersion)
+            from User u where u.email = :email
+            """)
+    Optional<UserTokenVersion> findTokenVersionByEmail(@Param("email") String email);
+
+    /**
+     * Returns the IDs of the users after {@code afterId} that match the given filters, in ID order.
+     * Null filters are ignored; the page size is taken from {@code pageable}. The date parameters are
+     * cast because PostgreSQL cannot infer the type of a bare null parameter.
+     */
+    @Query("""
+            select u.id from User u
+            where u.id > :afterId
+              and (:active is null or u.active = :active)
+              and (:role is null or :role member of u.roles)
+              and (cast(:createdFrom as LocalDateTime) is null or u.createDate >= :createdFrom)
+              and (cast(:createdTo as LocalDateTime) is null or u.createDate < :createdTo)
+            order by u.id
+            """)
+    List<Long> findPageIds(@Param("afterId") long afterId,
+                           @Param("active") Boolean active,
+                           @Param("role") Role role,
+                           @Param("createdFrom") LocalDateTime createdFrom,
+                           @Param("createdTo") LocalDateTime createdTo,
+                           Pageable pageable);
+
+    /**
+     * Loads every user as a summary, in ID order, with roles aggregated in the database.
+     * Native SQL (approved for read projections) so no entities are hydrated or managed.
+     */
+    @Query(value = SUMMARY_SELECT + " group by " + SUMMARY_GROUP_BY + " order by u.id", nativeQuery = true)
+    List<UserSummary> findAllSummaries();
+
+    /**
+     * Loads the given users as summaries, in ID order, with roles aggregated in the database.
+     */
+    @Query(value = SUMMARY_SELECT + " where u.id in (:ids) group by " + SUMMARY_GROUP_BY + " order by u.id",
+            nativeQuery = true)
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Streams every user joined with their roles, in ID order, through a server-side cursor.
+     * Rows are unmanaged projections, so the persistence context does not grow while streaming.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.example.usermanagement.repository.UserRoleRow(
+                u.id, u.name, u.email, u.createDate, u.active, r)
+            from User u left join u.roles r
+            order by u.id
+            """)
+    Stream<UserRoleRow> streamAllWithRoles();
 }
@@ -0,0 +1,12 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.Role;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the users/user_roles join; a user with several roles spans several consecutive rows
+ * and a user without roles has a single row with a null role.
+ */
+public record UserRoleRow(Long id, String name, String email, LocalDateTime createDate, Boolean active, Role role) {
+}
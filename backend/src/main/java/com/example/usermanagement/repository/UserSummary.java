@@ -0,0 +1,26 @@
+package com.example.usermanagement.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a user with their roles aggregated into one column. Never carries the password.
+ */
+public interface UserSummary {
+
+    Long getId();
+
+    String getName();
+
+    String getEmail();
+
+    /**
+     * @return the role names separated by commas, or null if the user has no roles.
+     */
+    String getRoles();
+
+    LocalDateTime getCreateDate();
+
+    Boolean getActive();
+
+    Long getVersion();
+}
@@ -0,0 +1,7 @@
+package com.example.usermanagement.repository;
+
+/**
+ * The version a user's self-contained tokens must carry, with the user's ID.
+ */
+public record UserTokenVersion(Long id, int tokenVersion) {
+}
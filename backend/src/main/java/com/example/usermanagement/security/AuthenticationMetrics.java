@@ -0,0 +1,73 @@
+package com.example.usermanagement.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.AccountExpiredException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts username/password authentication attempts as {@code auth.attempts}, tagged by result and,
+ * for failures, by reason.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthenticationMetrics {
+
+    private static final String METRIC_NAME = "auth.attempts";
+
+    private final MeterRegistry meterRegistry;
+
+    @EventListener
+    public void onSuccess(AuthenticationSuccessEvent event) {
+        counter("success", "none").increment();
+    }
+
+    @EventListener
+    public void onFailure(AbstractAuthenticationFailureEvent event) {
+        String reason = reason(event.getException());
+        log.debug("Authentication failed: {}", reason);
+        counter("failure", reason).increment();
+    }
+
+    private Counter counter(String result, String reason) {
+        return Counter.builder(METRIC_NAME)
+                .description("Username/password authentication attempts")
+                .tag("result", result)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static String reason(AuthenticationException exception) {
+        if (exception instanceof BadCredentialsException) {
+            return "bad_credentials";
+        }
+        if (exception instanceof DisabledException) {
+            return "disabled";
+        }
+        if (exception instanceof LockedException) {
+            return "locked";
+        }
+        if (exception instanceof AccountExpiredException) {
+            return "account_expired";
+        }
+        if (exception instanceof CredentialsExpiredException) {
+            return "credentials_expired";
+        }
+        if (exception instanceof InternalAuthenticationServiceException) {
+            return "internal_error";
+        }
+        return "other";
+    }
+}
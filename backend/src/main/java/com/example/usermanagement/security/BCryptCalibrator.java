@@ -0,0 +1,64 @@
+package com.example.usermanagement.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt work factor at startup by timing a hash on this machine.
+ */
+@Slf4j
+final class BCryptCalibrator {
+
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample";
+
+    private BCryptCalibrator() {
+    }
+
+    /**
+     * Resolves the work factor to hash new passwords with.
+     * <p>
+     * A positive configured strength is used as is; its measured cost is logged, with a warning when
+     * it exceeds the budget. Otherwise the highest strength whose estimated cost fits the budget is
+     * chosen, never below {@link #MIN_STRENGTH}. Each extra round doubles the cost, so only
+     * {@link #MIN_STRENGTH} is measured and higher strengths are extrapolated.
+     *
+     * @param configuredStrength the configured work factor, or 0 to calibrate.
+     * @param budget             the target latency of a single hash.
+     * @return the work factor to use.
+     */
+    static int resolve(int configuredStrength, Duration budget) {
+        if (configuredStrength > 0) {
+            Duration cost = measure(configuredStrength);
+            if (cost.compareTo(budget) > 0) {
+                log.warn("BCrypt strength {} takes {} ms per hash, above the {} ms budget",
+                        configuredStrength, cost.toMillis(), budget.toMillis());
+            } else {
+                log.info("BCrypt strength {} takes {} ms per hash", configuredStrength, cost.toMillis());
+            }
+            return configuredStrength;
+        }
+        int strength = MIN_STRENGTH;
+        Duration cost = measure(strength);
+        while (strength < MAX_STRENGTH && cost.multipliedBy(2).compareTo(budget) <= 0) {
+            strength++;
+            cost = cost.multipliedBy(2);
+        }
+        log.info("Calibrated BCrypt strength {} (about {} ms per hash, budget {} ms)",
+                strength, cost.toMillis(), budget.toMillis());
+        return strength;
+    }
+
+    private static Duration measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        // Warm up so class loading and JIT do not count against the first sample
+        new BCryptPasswordEncoder(4).encode(SAMPLE_PASSWORD);
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.usermanagement.security;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A JWT that has just been signed, with the claims the issuer needs to keep track of it.
+ *
+ * @param value     the signed JWT.
+ * @param id        the token ID ({@code jti} claim).
+ * @param expiresAt the instant the token expires.
+ */
+public record IssuedToken(String value, UUID id, Instant expiresAt) {
+}
@@ -8,20 +8,33 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
+/**
+ * Authenticates requests carrying a bearer JWT.
+ * <p>
+ * Self-contained tokens are trusted from their claims once their token version is current; other
+ * tokens resolve to the user they were issued for, which is then cached. Either way, tokens on the
+ * {@link TokenDenyList} are rejected.
+ */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final CustomUserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenVersionRegistry tokenVersions;
+    private final TokenDenyList tokenDenyList;
 
     @Override
     protected void doFilterInternal(
@@ -31,7 +44,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -39,21 +51,54 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userEmail = jwtUtils.extractUsername(jwt);
-
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-            if (jwtUtils.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities());
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            authenticate(jwt)
+                    .ifPresent(userDetails -> {
+                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                                userDetails,
+                                null,
+                                userDetails.getAuthorities());
+                        authToken.setDetails(
+                                new WebAuthenticationDetailsSource().buildDetails(request));
+                        SecurityContextHolder.getContext().setAuthentication(authToken);
+                    });
         }
         filterChain.doFilter(request, response);
     }
+
+    private Optional<UserDetails> authenticate(String jwt) {
+        Optional<VerifiedTokenCache.CachedPrincipal> cached = verifiedTokenCache.get(jwt);
+        if (cached.isPresent()) {
+            return cached
+                    .filter(principal -> !tokenDenyList.isDenied(principal.tokenId()))
+                    .map(VerifiedTokenCache.CachedPrincipal::userDetails);
+        }
+        return verifyAndLoad(jwt);
+    }
+
+    private Optional<UserDetails> verifyAndLoad(String jwt) {
+        return jwtUtils.verify(jwt)
+                .filter(token -> !tokenDenyList.isDenied(token.id()))
+                .flatMap(token -> {
+                    if (jwtUtils.isSelfContained() && token.isSelfContained()) {
+                        return fromClaims(token);
+                    }
+                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(token.subject());
+                    verifiedTokenCache.put(jwt, token, userDetails);
+                    return Optional.of(userDetails);
+                });
+    }
+
+    private Optional<UserDetails> fromClaims(VerifiedToken token) {
+        if (!tokenVersions.isCurrent(token.subject(), token.version())) {
+            return Optional.empty();
+        }
+        return Optional.of(new User(
+                token.subject(),
+                "",
+                token.roles().stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .toList()));
+    }
 }
@@ -1,75 +1,208 @@
 package com.example.usermanagement.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.UUID;
 
+/**
+ * Issues and verifies the application's JWTs.
+ * <p>
+ * Tokens are signed with RS256 by the current key of the {@link JwtKeyStore} and name it in their
+ * {@code kid} header, so other services can verify them with the published key set. The parser is
+ * built once at startup and is thread-safe; it resolves each token's public key by key ID from the
+ * key store and accepts nothing but RS256. Every token gets a random ID ({@code jti}) so that it
+ * can be revoked on its own through the {@link TokenDenyList}.
+ */
+@Slf4j
 @Component
 public class JwtUtils {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    static final String ROLES_CLAIM = "roles";
+    static final String VERSION_CLAIM = "ver";
 
-    @Value("${jwt.expiration}")
-    private long expiration;
+    private final JwtKeyStore keyStore;
+    private final JwtParser parser;
+    private final long expiration;
+    private final boolean selfContained;
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    public JwtUtils(
+            JwtKeyStore keyStore,
+            @Value("${jwt.expiration}") long expiration,
+            @Value("${jwt.self-contained}") boolean selfContained) {
+        this.keyStore = keyStore;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyStoreResolver(keyStore))
+                .build();
+        this.expiration = expiration;
+        this.selfContained = selfContained;
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Tells whether tokens should carry the user's authorities so requests can be authenticated
+     * without loading the user.
+     *
+     * @return true if self-contained token mode is enabled.
+     */
+    public boolean isSelfContained() {
+        return selfContained;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Parses a token, checking its signature and expiry exactly once.
+     *
+     * @param token the raw JWT.
+     * @return the verified claims, or empty if the token is malformed, forged, expired or has no subject.
+     */
+    @Timed("jwt.verify")
+    public Optional<VerifiedToken> verify(String token) {
+        final Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException ex) {
+            log.debug("Rejected JWT: {}", ex.getMessage());
+            return Optional.empty();
+        }
+        if (claims.getSubject() == null) {
+            return Optional.empty();
+        }
+        final UUID id;
+        try {
+            id = claims.getId() != null ? UUID.fromString(claims.getId()) : null;
+        } catch (IllegalArgumentException ex) {
+            log.debug("Rejected JWT with malformed ID: {}", claims.getId());
+            return Optional.empty();
+        }
+        Integer version = claims.get(VERSION_CLAIM, Integer.class);
+        return Optional.of(new VerifiedToken(
+                id,
+                claims.getSubject(),
+                extractRoles(claims),
+                version != null ? version : VerifiedToken.NO_VERSION,
+                claims.getExpiration().toInstant()));
     }
 
+    @Timed("jwt.generate")
     public String generateToken(UserDetails userDetails) {
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    /**
+     * Issues a token that embeds the user's authorities and token version.
+     *
+     * @param userDetails  the user the token is issued for.
+     * @param tokenVersion the user's current token version, see {@link TokenVersionRegistry}.
+     * @return the signed JWT.
+     */
+    @Timed("jwt.generate")
+    public String generateSelfContainedToken(UserDetails userDetails, int tokenVersion) {
+        return issue(selfContainedClaims(userDetails, tokenVersion), userDetails).value();
+    }
+
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return Jwts.builder()
+        return issue(extraClaims, userDetails).value();
+    }
+
+    /**
+     * Issues an access token in the configured mode: self-contained when enabled, plain otherwise.
+     *
+     * @param userDetails  the user the token is issued for.
+     * @param tokenVersion the user's current token version, see {@link TokenVersionRegistry}.
+     * @return the signed JWT with its ID and expiry.
+     */
+    @Timed("jwt.generate")
+    public IssuedToken issueAccessToken(UserDetails userDetails, int tokenVersion) {
+        Map<String, Object> claims = selfContained ? selfContainedClaims(userDetails, tokenVersion) : new HashMap<>();
+        return issue(claims, userDetails);
+    }
+
+    private IssuedToken issue(Map<String, Object> extraClaims, UserDetails userDetails) {
+        UUID id = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        Date expiresAt = new Date(now + expiration);
+        JwtKeyStore.SigningKey signingKey = keyStore.signingKey();
+        String token = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
                 .setClaims(extraClaims)
+                .setId(id.toString())
                 .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(expiresAt)
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.RS256)
                 .compact();
+        return new IssuedToken(token, id, expiresAt.toInstant());
+    }
+
+    private static Map<String, Object> selfContainedClaims(UserDetails userDetails, int tokenVersion) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(ROLES_CLAIM, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        claims.put(VERSION_CLAIM, tokenVersion);
+        return claims;
     }
 
+    /**
+     * Checks that a token is authentic, unexpired and was issued to the given user.
+     *
+     * @param token       the raw JWT.
+     * @param userDetails the user the token is expected to belong to.
+     * @return true if the token is valid for the user.
+     */
+    @Timed("jwt.verify")
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return verify(token)
+                .map(VerifiedToken::subject)
+                .filter(userDetails.getUsername()::equals)
+                .isPresent();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static List<String> extractRoles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof List<?> values)) {
+            return List.of();
+        }
+        return values.stream().map(String::valueOf).toList();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Looks up the public key named by a token's header. Tokens signed with another algorithm or
+     * an unknown or retired key are rejected before their signature is checked.
+     */
+    private static final class KeyStoreResolver extends SigningKeyResolverAdapter {
+
+        private final JwtKeyStore keyStore;
+
+        KeyStoreResolver(JwtKeyStore keyStore) {
+            this.keyStore = keyStore;
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes") // jjwt 0.11 declares the raw type, so JwsHeader<?> would not override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            if (!SignatureAlgorithm.RS256.getValue().equals(header.getAlgorithm())) {
+                throw new UnsupportedJwtException("Unexpected signature algorithm " + header.getAlgorithm());
+            }
+            return keyStore.verificationKey(header.getKeyId())
+                    .orElseThrow(() -> new JwtException("Unknown signing key " + header.getKeyId()));
+        }
     }
 }
@@ -0,0 +1,305 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory throttle for login attempts, applied before any password is checked.
+ * <p>
+ * Attempts are limited by a token bucket per client IP and another per email, each held in GCRA
+ * form as a single "theoretical arrival time" that is advanced without locks. Failed logins also
+ * build up a progressive lockout per email: once {@code lockout-threshold} failures have been
+ * recorded the email is locked for {@code lockout-base}, doubling with each further failure up to
+ * {@code lockout-max}.
+ * <p>
+ * State lives in fixed arrays of striped counters, so memory stays the same however many keys are
+ * seen. Each key maps to two stripes and, as in a count-min sketch, the less loaded one decides, so
+ * a key is only throttled by mistake if both its stripes are shared with busy keys. Hash seeds are
+ * random per process, so colliding keys cannot be computed in advance.
+ * <p>
+ * Allowed and blocked attempts are counted as {@code auth.rate_limit}, tagged by result and, for
+ * blocks, by reason.
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    private static final String METRIC_NAME = "auth.rate_limit";
+
+    private final Clock clock;
+    private final TokenBuckets ipBuckets;
+    private final TokenBuckets emailBuckets;
+    private final Lockouts lockouts;
+    private final Counter allowed;
+    private final Counter blockedByIp;
+    private final Counter blockedByEmail;
+    private final Counter blockedByLockout;
+
+    @Autowired
+    public LoginRateLimiter(
+            @Value("${security.login.ip-attempts}") int ipAttempts,
+            @Value("${security.login.ip-period}") long ipPeriodMillis,
+            @Value("${security.login.email-attempts}") int emailAttempts,
+            @Value("${security.login.email-period}") long emailPeriodMillis,
+            @Value("${security.login.lockout-threshold}") int lockoutThreshold,
+            @Value("${security.login.lockout-base}") long lockoutBaseMillis,
+            @Value("${security.login.lockout-max}") long lockoutMaxMillis,
+            @Value("${security.login.lockout-reset-after}") long lockoutResetAfterMillis,
+            @Value("${security.login.stripes}") int stripes,
+            MeterRegistry meterRegistry) {
+        this(ipAttempts, ipPeriodMillis, emailAttempts, emailPeriodMillis, lockoutThreshold, lockoutBaseMillis,
+                lockoutMaxMillis, lockoutResetAfterMillis, stripes, meterRegistry, Clock.systemUTC());
+    }
+
+    LoginRateLimiter(int ipAttempts, long ipPeriodMillis, int emailAttempts, long emailPeriodMillis,
+            int lockoutThreshold, long lockoutBaseMillis, long lockoutMaxMillis, long lockoutResetAfterMillis,
+            int stripes, MeterRegistry meterRegistry, Clock clock) {
+        SecureRandom random = new SecureRandom();
+        int size = Integer.highestOneBit(Math.max(stripes, 2) - 1) << 1;
+        this.clock = clock;
+        this.ipBuckets = new TokenBuckets(size, random.nextLong(), ipAttempts, ipPeriodMillis);
+        this.emailBuckets = new TokenBuckets(size, random.nextLong(), emailAttempts, emailPeriodMillis);
+        this.lockouts = new Lockouts(size, random.nextLong(), lockoutThreshold, lockoutBaseMillis, lockoutMaxMillis,
+                lockoutResetAfterMillis);
+        this.allowed = counter(meterRegistry, "allowed", "none");
+        this.blockedByIp = counter(meterRegistry, "blocked", "ip");
+        this.blockedByEmail = counter(meterRegistry, "blocked", "email");
+        this.blockedByLockout = counter(meterRegistry, "blocked", "lockout");
+        log.info("Login throttling: {} attempts per {} ms per IP, {} per {} ms per email, {} stripes",
+                ipAttempts, ipPeriodMillis, emailAttempts, emailPeriodMillis, size);
+    }
+
+    /**
+     * Takes one login attempt from the client's and the email's allowance.
+     *
+     * @param email    the email being logged in to.
+     * @param clientIp the client's address.
+     * @throws RateLimitExceededException if the email is locked out or either allowance is used up.
+     */
+    public void acquire(String email, String clientIp) {
+        long now = clock.millis();
+        String emailKey = normalize(email);
+        long wait = lockouts.remaining(emailKey, now);
+        if (wait > 0) {
+            blockedByLockout.increment();
+            throw new RateLimitExceededException("Too many failed logins, please retry later", Duration.ofMillis(wait));
+        }
+        wait = ipBuckets.tryAcquire(clientIp == null ? "" : clientIp, now);
+        if (wait > 0) {
+            blockedByIp.increment();
+            throw new RateLimitExceededException("Too many login attempts, please retry later", Duration.ofMillis(wait));
+        }
+        wait = emailBuckets.tryAcquire(emailKey, now);
+        if (wait > 0) {
+            blockedByEmail.increment();
+            throw new RateLimitExceededException("Too many login attempts, please retry later", Duration.ofMillis(wait));
+        }
+        allowed.increment();
+    }
+
+    /**
+     * Records a failed login towards the email's lockout.
+     *
+     * @param email the email whose password was wrong.
+     */
+    public void recordFailure(String email) {
+        lockouts.recordFailure(normalize(email), clock.millis());
+    }
+
+    /**
+     * Clears the email's failure count after a successful login. Stripes shared with other emails
+     * may hold their failures too, so a stripe that has reached the lockout threshold is left to
+     * expire after {@code lockout-reset-after} rather than unlocking those emails.
+     *
+     * @param email the email that logged in.
+     */
+    public void recordSuccess(String email) {
+        lockouts.reset(normalize(email), clock.millis());
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result, String reason) {
+        return Counter.builder(METRIC_NAME)
+                .description("Login attempts let through or refused by the login throttle")
+                .tag("result", result)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fixed-size array of counters addressed by a seeded 64-bit hash of the key, whose two halves
+     * give the key's two stripes.
+     */
+    private abstract static class Stripes {
+
+        final AtomicLongArray slots;
+        private final int mask;
+        private final long seed;
+
+        Stripes(int size, long seed) {
+            this.slots = new AtomicLongArray(size);
+            this.mask = size - 1;
+            this.seed = seed;
+        }
+
+        long hash(String key) {
+            long h = seed ^ 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h = (h ^ key.charAt(i)) * 0x100000001b3L;
+            }
+            h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+            h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return h ^ (h >>> 33);
+        }
+
+        int first(long hash) {
+            return (int) hash & mask;
+        }
+
+        int second(long hash) {
+            return (int) (hash >>> 32) & mask;
+        }
+    }
+
+    /**
+     * Token buckets in GCRA form: each slot holds the time at which its bucket will be full again.
+     * An attempt is allowed while that time is at most the burst tolerance ahead of now, and moves
+     * it one emission interval further.
+     */
+    private static final class TokenBuckets extends Stripes {
+
+        private final long interval;
+        private final long tolerance;
+
+        TokenBuckets(int size, long seed, int attempts, long periodMillis) {
+            super(size, seed);
+            this.interval = Math.max(1, periodMillis / Math.max(1, attempts));
+            this.tolerance = interval * (Math.max(1, attempts) - 1);
+        }
+
+        /**
+         * @return 0 if the attempt is allowed, otherwise the milliseconds until it would be.
+         */
+        long tryAcquire(String key, long now) {
+            long hash = hash(key);
+            int a = first(hash);
+            int b = second(hash);
+            while (true) {
+                long valueA = slots.get(a);
+                long valueB = slots.get(b);
+                int chosen = valueA <= valueB ? a : b;
+                long current = Math.min(valueA, valueB);
+                long arrival = Math.max(current, now);
+                if (arrival - now > tolerance) {
+                    return arrival - tolerance - now;
+                }
+                long next = arrival + interval;
+                // The other stripe is raised first, so that an attempt deciding on it meanwhile
+                // already sees this one; the attempt is only admitted if the deciding stripe has not
+                // moved since it was read, otherwise it is checked again
+                int other = chosen == a ? b : a;
+                if (other != chosen) {
+                    slots.accumulateAndGet(other, next, Math::max);
+                }
+                if (slots.compareAndSet(chosen, current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Failure counts for the progressive lockout. Each slot packs the failure count into the top
+     * 16 bits and the time of the last failure, in epoch milliseconds, into the other 48.
+     */
+    private static final class Lockouts extends Stripes {
+
+        private static final int TIME_BITS = 48;
+        private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+        private static final long MAX_FAILURES = 0xFFFF;
+
+        private final int threshold;
+        private final long baseMillis;
+        private final long maxMillis;
+        private final long resetAfterMillis;
+
+        Lockouts(int size, long seed, int threshold, long baseMillis, long maxMillis, long resetAfterMillis) {
+            super(size, seed);
+            this.threshold = Math.max(1, threshold);
+            this.baseMillis = baseMillis;
+            this.maxMillis = maxMillis;
+            this.resetAfterMillis = resetAfterMillis;
+        }
+
+        /**
+         * @return the milliseconds left on the key's lockout, or 0 if it is not locked.
+         */
+        long remaining(String key, long now) {
+            long hash = hash(key);
+            long a = slots.get(first(hash));
+            long b = slots.get(second(hash));
+            long state = failures(a, now) <= failures(b, now) ? a : b;
+            long failures = failures(state, now);
+            if (failures < threshold) {
+                return 0;
+            }
+            long shift = Math.min(failures - threshold, 32);
+            long lockout = Math.min(maxMillis, baseMillis << shift);
+            if (lockout < 0) {
+                lockout = maxMillis;
+            }
+            return Math.max(0, (state & TIME_MASK) + lockout - now);
+        }
+
+        void recordFailure(String key, long now) {
+            long hash = hash(key);
+            int a = first(hash);
+            int b = second(hash);
+            slots.getAndUpdate(a, state -> fail(state, now));
+            // A key whose stripes coincide must not count each failure twice
+            if (b != a) {
+                slots.getAndUpdate(b, state -> fail(state, now));
+            }
+        }
+
+        /**
+         * Clears the key's stripes unless they are at the lockout threshold, in which case they may
+         * be locking out another key.
+         */
+        void reset(String key, long now) {
+            long hash = hash(key);
+            slots.getAndUpdate(first(hash), state -> failures(state, now) < threshold ? 0 : state);
+            slots.getAndUpdate(second(hash), state -> failures(state, now) < threshold ? 0 : state);
+        }
+
+        private long fail(long state, long now) {
+            long failures = Math.min(failures(state, now) + 1, MAX_FAILURES);
+            return (failures << TIME_BITS) | (now & TIME_MASK);
+        }
+
+        /**
+         * Failure count of a slot, treated as zero once its last failure is older than the reset
+         * period.
+         */
+        private long failures(long state, long now) {
+            if (now - (state & TIME_MASK) > resetAfterMillis) {
+                return 0;
+            }
+            return state >>> TIME_BITS;
+        }
+    }
+}
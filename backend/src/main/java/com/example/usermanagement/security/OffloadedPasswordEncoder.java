@@ -0,0 +1,49 @@
+package com.example.usermanagement.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Password encoder that runs the delegate's hashing on the {@link PasswordHashingExecutor}
+ * instead of the calling request thread.
+ */
+public class OffloadedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public OffloadedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Hashes several passwords in parallel.
+     *
+     * @param rawPasswords the passwords to hash.
+     * @return the encoded passwords, in the same order.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<Supplier<String>> tasks = rawPasswords.stream()
+                .<Supplier<String>>map(raw -> () -> delegate.encode(raw))
+                .toList();
+        return executor.executeAll(tasks);
+    }
+}
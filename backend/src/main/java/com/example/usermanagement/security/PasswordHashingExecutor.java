@@ -0,0 +1,147 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool of platform threads with a bounded queue for CPU-bound password hashing.
+ * <p>
+ * Keeps hashing off the servlet threads. When the queue is full, work is rejected with a
+ * {@link ServiceOverloadedException} instead of waiting, so a login storm cannot pile up requests.
+ * The pool is published as the {@code password.hashing} executor metrics: queue depth
+ * ({@code executor.queued}), time spent waiting in the queue ({@code executor.idle}) and hash
+ * duration ({@code executor}).
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+    private static final String METRIC_NAME = "password.hashing";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final ExecutorService executor;
+    private final int threads;
+    private final Duration retryAfter;
+    private final Counter rejected;
+    private final ThreadPoolExecutor pool;
+
+    public PasswordHashingExecutor(
+            @Value("${security.password.hash-threads}") int threads,
+            @Value("${security.password.hash-queue-capacity}") int queueCapacity,
+            @Value("${security.password.hash-retry-after}") long retryAfterMillis,
+            MeterRegistry meterRegistry) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.retryAfter = Duration.ofMillis(retryAfterMillis);
+        this.pool = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, METRIC_NAME);
+        this.rejected = Counter.builder(METRIC_NAME + ".rejected")
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a task on the pool and waits for its result.
+     *
+     * @param task the hashing work.
+     * @return the task's result.
+     * @throws ServiceOverloadedException if the queue is full.
+     */
+    public <T> T execute(Supplier<T> task) {
+        try {
+            return await(CompletableFuture.supplyAsync(task, executor));
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            log.warn("Password hashing queue is full, rejecting request");
+            throw new ServiceOverloadedException("Server is busy, please retry later", retryAfter);
+        }
+    }
+
+    /**
+     * Runs several tasks in parallel for bulk callers.
+     * <p>
+     * At most one task per pool thread is submitted at a time, so a bulk job never fills the queue
+     * ahead of interactive requests. If the queue is full anyway, the task runs on the calling thread.
+     *
+     * @param tasks the hashing work.
+     * @return the results, in the same order as the tasks.
+     */
+    public <T> List<T> executeAll(List<Supplier<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        for (int from = 0; from < tasks.size(); from += threads) {
+            List<CompletableFuture<T>> window = tasks.subList(from, Math.min(from + threads, tasks.size()))
+                    .stream()
+                    .map(this::submitOrRunInline)
+                    .toList();
+            window.forEach(future -> results.add(await(future)));
+        }
+        return results;
+    }
+
+    private <T> CompletableFuture<T> submitOrRunInline(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Stops accepting work and lets tasks already submitted finish, for up to five seconds.
+     */
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Password hashing tasks still running after {} s", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
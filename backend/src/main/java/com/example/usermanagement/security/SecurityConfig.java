@@ -2,6 +2,7 @@ package com.example.usermanagement.security;
 
 import com.example.usermanagement.service.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,39 +15,56 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+    private static final Set<String> OPEN_ACTUATOR_PATHS = Set.of("/actuator/health", "/actuator/prometheus");
+
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final CustomUserDetailsService userDetailsService;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationProvider authenticationProvider,
+            @Value("${management.server.port:-1}") int managementPort) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Public keys for services verifying our tokens
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+                        // Health checks and the Prometheus scraper do not carry user tokens; they are
+                        // only let in on the management port, which is not exposed publicly
+                        .requestMatchers(request -> request.getLocalPort() == managementPort
+                                && OPEN_ACTUATOR_PATHS.contains(request.getRequestURI())).permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsService(userDetailsService::loadUserForLogin);
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Re-hashes outdated passwords after a successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -55,8 +73,20 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * Delegating encoder that writes {@code {bcrypt}} hashes at the configured (or calibrated) strength
+     * and still accepts legacy unprefixed BCrypt hashes, which are upgraded on the next login.
+     * Hashing runs on the dedicated hashing pool rather than request threads.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public OffloadedPasswordEncoder passwordEncoder(
+            PasswordHashingExecutor passwordHashingExecutor,
+            @Value("${security.password.bcrypt-strength}") int strength,
+            @Value("${security.password.hash-latency-budget}") long latencyBudgetMillis) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(
+                BCryptCalibrator.resolve(strength, Duration.ofMillis(latencyBudgetMillis)));
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new OffloadedPasswordEncoder(delegating, passwordHashingExecutor);
     }
 }
@@ -0,0 +1,81 @@
+package com.example.usermanagement.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Access tokens revoked before their expiry, by token ID.
+ * <p>
+ * Each entry is a UUID key and the token's expiry, and is dropped once the token would have expired
+ * anyway, so the list only ever holds tokens revoked within the last access token lifetime. It is
+ * deliberately not bounded by size: evicting an entry early would bring a revoked token back.
+ * Unlike the {@link TokenVersionRegistry}, the list is process-local; other instances accept a
+ * revoked access token until it expires, while its refresh token is rejected everywhere at once.
+ * <p>
+ * Publishes the {@code jwt.denied.tokens} gauge.
+ */
+@Component
+public class TokenDenyList {
+
+    private final Cache<UUID, Instant> denied;
+
+    public TokenDenyList(MeterRegistry meterRegistry) {
+        this.denied = Caffeine.newBuilder()
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+        Gauge.builder("jwt.denied.tokens", denied, Cache::estimatedSize)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Revokes an access token until it expires.
+     *
+     * @param tokenId   the token ID.
+     * @param expiresAt the token's expiry; already expired tokens are not recorded.
+     */
+    public void deny(UUID tokenId, Instant expiresAt) {
+        if (tokenId != null && expiresAt.isAfter(Instant.now())) {
+            denied.put(tokenId, expiresAt);
+        }
+    }
+
+    /**
+     * Tells whether an access token has been revoked.
+     *
+     * @param tokenId the token ID, or null for tokens issued without one.
+     * @return true if the token must be rejected.
+     */
+    public boolean isDenied(UUID tokenId) {
+        return tokenId != null && denied.getIfPresent(tokenId) != null;
+    }
+
+    /**
+     * Expires an entry at the token's own expiry. Reads never extend it.
+     */
+    private static final class UntilTokenExpiry implements Expiry<UUID, Instant> {
+
+        @Override
+        public long expireAfterCreate(UUID key, Instant expiresAt, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID key, Instant expiresAt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, expiresAt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID key, Instant expiresAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserChangesFollowedEvent;
+import com.example.usermanagement.event.UsersChangedEvent;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserTokenVersion;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user token versions used to revoke self-contained tokens.
+ * <p>
+ * The versions live in the users table, where every change to a user's credentials increments
+ * them, so they are shared by all instances and survive restarts. This class caches them by email.
+ * Entries are dropped as soon as a user changes, locally once the change has been committed and on
+ * every other instance when it reads the change from the change feed, and are otherwise kept for at
+ * most the configured TTL. A token is accepted while its version is at least the cached one; tokens
+ * of users that no longer exist are always rejected.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    private static final String CACHE_NAME = "jwt.token-versions";
+    // Cached for emails no user has; no version is high enough
+    private static final UserTokenVersion UNKNOWN_USER = new UserTokenVersion(null, Integer.MAX_VALUE);
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserTokenVersion> versions;
+
+    public TokenVersionRegistry(
+            UserRepository userRepository,
+            @Value("${jwt.token-versions.max-size}") long maxSize,
+            @Value("${jwt.token-versions.ttl}") long ttlMillis,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, CACHE_NAME);
+    }
+
+    /**
+     * Returns the version that newly issued tokens for a user must carry. It is read from the
+     * database rather than the cache, so that a token issued here is accepted everywhere even if
+     * this instance has not followed the latest change yet.
+     *
+     * @param email the user's email.
+     * @return the current token version.
+     */
+    public int currentVersion(String email) {
+        return versions.asMap().compute(email, (key, cached) -> load(key)).tokenVersion();
+    }
+
+    /**
+     * Tells whether a token version is still accepted for a user.
+     *
+     * @param email   the user's email.
+     * @param version the version carried by the token.
+     * @return true if the token has not been revoked.
+     */
+    public boolean isCurrent(String email, int version) {
+        return version >= versions.get(email, this::load).tokenVersion();
+    }
+
+    /**
+     * Drops the cached versions of users, so that they are read again on next use.
+     *
+     * @param userIds the IDs of the users.
+     */
+    public void invalidate(Set<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            versions.asMap().values().removeIf(cached -> cached.id() != null && userIds.contains(cached.id()));
+        }
+    }
+
+    /**
+     * Drops a user's cached version once a change to their credentials has been committed.
+     *
+     * @param event the user change event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.credentialsChanged()) {
+            invalidate(Set.of(event.userId()));
+        }
+    }
+
+    /**
+     * Drops the cached versions of users whose credentials a batch operation changed, once it has
+     * been committed, in one pass over the cache.
+     *
+     * @param event the users changed event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        invalidate(event.changes().stream()
+                .filter(UserChangedEvent::credentialsChanged)
+                .map(UserChangedEvent::userId)
+                .collect(Collectors.toSet()));
+    }
+
+    /**
+     * Drops the cached versions of users changed on any instance, as read from the change feed.
+     * Entries are also dropped by the users' current emails, in case a token for an earlier holder
+     * of one was rejected here. Everything is dropped if changes were missed.
+     *
+     * @param event the followed changes.
+     */
+    @EventListener
+    public void onChangesFollowed(UserChangesFollowedEvent event) {
+        if (event.historyLost()) {
+            versions.invalidateAll();
+            return;
+        }
+        Set<Long> userIds = new HashSet<>();
+        for (UserChange change : event.changes()) {
+            userIds.add(change.getUserId());
+            if (change.getUser() != null && change.getUser().getEmail() != null) {
+                versions.invalidate(change.getUser().getEmail());
+            }
+        }
+        invalidate(userIds);
+    }
+
+    private UserTokenVersion load(String email) {
+        return userRepository.findTokenVersionByEmail(email).orElse(UNKNOWN_USER);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.usermanagement.security;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable view of a JWT whose signature and expiry have already been checked.
+ *
+ * @param id        the token ID ({@code jti} claim), or null for tokens issued without one.
+ * @param subject   the token subject (the user's email).
+ * @param roles     the granted authorities carried in the token, empty if the token has none.
+ * @param version   the user's token version at issue time, or {@link #NO_VERSION}.
+ * @param expiresAt the instant the token expires.
+ */
+public record VerifiedToken(UUID id, String subject, List<String> roles, int version, Instant expiresAt) {
+
+    public static final int NO_VERSION = -1;
+
+    public VerifiedToken {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+
+    /**
+     * Tells whether the token carries everything needed to authenticate without loading the user.
+     *
+     * @return true if the token has both authorities and a token version.
+     */
+    public boolean isSelfContained() {
+        return version != NO_VERSION && !roles.isEmpty();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UsersChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded cache of already verified JWTs and the user details they resolved to.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the token, so raw tokens are never retained, and
+ * expire after the configured TTL or at the token's own expiry, whichever comes first.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final String CACHE_NAME = "jwt.verified-tokens";
+
+    private final Cache<String, CachedPrincipal> cache;
+
+    public VerifiedTokenCache(
+            @Value("${jwt.cache.max-size}") long maxSize,
+            @Value("${jwt.cache.ttl}") long ttlMillis,
+            MeterRegistry meterRegistry) {
+        Duration ttl = Duration.ofMillis(ttlMillis);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Looks up the user details previously resolved for a token.
+     *
+     * @param token the raw JWT.
+     * @return the cached user details and token ID, or empty if the token has not been verified recently.
+     */
+    public Optional<CachedPrincipal> get(String token) {
+        return Optional.ofNullable(cache.getIfPresent(digest(token)));
+    }
+
+    /**
+     * Caches the user details for a token that has just been verified.
+     *
+     * @param token       the raw JWT.
+     * @param verified    the token's verified claims; the entry never outlives the token.
+     * @param userDetails the user details the token resolved to.
+     */
+    public void put(String token, VerifiedToken verified, UserDetails userDetails) {
+        cache.put(digest(token), new CachedPrincipal(userDetails, verified.id(), verified.expiresAt()));
+    }
+
+    /**
+     * Drops every cached token belonging to a user.
+     *
+     * @param email the username (email) the tokens were issued for.
+     */
+    public void invalidate(String email) {
+        cache.asMap().values().removeIf(entry -> entry.userDetails().getUsername().equals(email));
+    }
+
+    /**
+     * Invalidates a user's tokens once a change to their credentials has been committed.
+     *
+     * @param event the user change event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.credentialsChanged()) {
+            invalidate(event.email());
+        }
+    }
+
+    /**
+     * Invalidates the tokens of users whose credentials a batch operation changed, once it has
+     * been committed, in one pass over the cache.
+     *
+     * @param event the users changed event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        Set<String> emails = event.changes().stream()
+                .filter(UserChangedEvent::credentialsChanged)
+                .map(UserChangedEvent::email)
+                .collect(Collectors.toSet());
+        if (!emails.isEmpty()) {
+            cache.asMap().values().removeIf(entry -> emails.contains(entry.userDetails().getUsername()));
+        }
+    }
+
+    /**
+     * Returns a snapshot of the hit, miss and eviction counters.
+     *
+     * @return the current cache statistics.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * The user details a token resolved to.
+     *
+     * @param userDetails the user details.
+     * @param tokenId     the token ID, so that revoked tokens can still be rejected.
+     * @param expiresAt   the token's expiry.
+     */
+    public record CachedPrincipal(UserDetails userDetails, UUID tokenId, Instant expiresAt) {
+    }
+
+    /**
+     * Expires an entry after the configured TTL or at the token's expiry, whichever is sooner.
+     * Reads never extend the lifetime of an entry.
+     */
+    private record TokenExpiry(Duration maxTtl) implements Expiry<String, CachedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedPrincipal value, long currentTime) {
+            Duration remaining = Duration.between(Instant.now(), value.expiresAt());
+            if (remaining.isNegative()) {
+                return 0;
+            }
+            return Math.min(remaining.toNanos(), maxTtl.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
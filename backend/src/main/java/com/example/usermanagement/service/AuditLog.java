@@ -0,0 +1,303 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.AuditEvent;
+import com.example.usermanagement.repository.AuditRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records audit events without writing to the database on the caller's thread.
+ * <p>
+ * Events go onto a lock-free ring buffer of {@code buffer-size} slots. A single writer thread
+ * drains it and appends the events to the audit log table, up to {@code batch-size} per
+ * transaction. It writes as soon as events are waiting and otherwise checks every
+ * {@code flush-interval}, so batches grow with load. If a write fails, the batch is retried after
+ * the interval while new events keep queueing behind it. A batch the database rejects, such as one
+ * holding a value too long for its column, would fail every retry, so it is written again one event
+ * at a time and the events still rejected are logged and dropped.
+ * <p>
+ * When the buffer is full, the {@code overflow-policy} decides: {@code drop} discards the event at
+ * once, {@code block} makes the caller wait up to {@code block-timeout} for space before
+ * discarding it. Discarded events are logged as a last resort.
+ * <p>
+ * Publishes {@code audit.events.written}, {@code audit.events.dropped},
+ * {@code audit.events.rejected}, {@code audit.write.failures} and the {@code audit.buffer.size}
+ * gauge.
+ */
+@Slf4j
+@Component
+public class AuditLog {
+
+    private static final long BLOCK_PAUSE_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
+    private final AuditRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final Clock clock;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter rejected;
+    private final Counter writeFailures;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AuditLog(
+            AuditRepository repository,
+            TransactionTemplate transactionTemplate,
+            @Value("${audit.buffer-size}") int bufferSize,
+            @Value("${audit.batch-size}") int batchSize,
+            @Value("${audit.flush-interval}") long flushIntervalMillis,
+            @Value("${audit.overflow-policy}") OverflowPolicy overflowPolicy,
+            @Value("${audit.block-timeout}") long blockTimeoutMillis,
+            MeterRegistry meterRegistry) {
+        this(repository, transactionTemplate, bufferSize, batchSize, flushIntervalMillis, overflowPolicy,
+                blockTimeoutMillis, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    AuditLog(AuditRepository repository, TransactionTemplate transactionTemplate, int bufferSize, int batchSize,
+            long flushIntervalMillis, OverflowPolicy overflowPolicy, long blockTimeoutMillis,
+            MeterRegistry meterRegistry, Clock clock) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.buffer = new AuditRingBuffer<>(bufferSize);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.clock = clock;
+        this.written = Counter.builder("audit.events.written")
+                .description("Audit events appended to the audit log")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("audit.events.dropped")
+                .description("Audit events discarded because the buffer was full or the writer stopped")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("audit.events.rejected")
+                .description("Audit events the database refused to store, logged and dropped")
+                .register(meterRegistry);
+        this.writeFailures = Counter.builder("audit.write.failures")
+                .description("Audit log batches that failed to be written and were retried")
+                .register(meterRegistry);
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        this.writer = Thread.ofPlatform().name("audit-writer").daemon().unstarted(this::drainLoop);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.start();
+        log.info("Audit log: {} slots, batches of up to {}, {} when full",
+                buffer.capacity(), batchSize, overflowPolicy);
+    }
+
+    /**
+     * Writes what is still buffered and stops the writer.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(SHUTDOWN_TIMEOUT);
+    }
+
+    /**
+     * Records an event now, whatever becomes of the current transaction. Use for attempts, such
+     * as logins, that should be audited even when they fail.
+     *
+     * @param action  what happened.
+     * @param userId  the user acted on, if known.
+     * @param email   the email acted on.
+     * @param details a short description, or null.
+     */
+    public void record(AuditEvent.Action action, Long userId, String email, String details) {
+        enqueue(event(action, userId, email, details));
+    }
+
+    /**
+     * Records an event once the current transaction commits, or now if there is none. Use for
+     * changes, which only happened if they are committed.
+     *
+     * @param action  what happened.
+     * @param userId  the user acted on.
+     * @param email   the email acted on.
+     * @param details a short description, or null.
+     */
+    public void recordAfterCommit(AuditEvent.Action action, Long userId, String email, String details) {
+        // Built now, while the caller's request and authentication are still at hand
+        AuditEvent event = event(action, userId, email, details);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    private AuditEvent event(AuditEvent.Action action, Long userId, String email, String details) {
+        return AuditEvent.builder()
+                .occurredAt(LocalDateTime.now(clock))
+                .action(action)
+                .actor(currentActor())
+                .userId(userId)
+                .email(email)
+                .clientIp(currentClientIp())
+                .details(details)
+                .build();
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (buffer.offer(event)) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            do {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(BLOCK_PAUSE_NANOS);
+                if (buffer.offer(event)) {
+                    return;
+                }
+            } while (System.nanoTime() - deadline < 0);
+        }
+        dropped.increment();
+        log.warn("Audit buffer is full, dropping {}", event);
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            boolean more = batch.size() == batchSize;
+            if (!batch.isEmpty() && !write(batch)) {
+                more = false;
+            }
+            if (!more) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+        // Shutting down: what is left gets one more attempt
+        do {
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (!batch.isEmpty() && !write(batch)) {
+                int lost = batch.size() + buffer.size();
+                dropped.increment(lost);
+                log.error("Audit log writer stopped with {} events unwritten", lost);
+                return;
+            }
+        } while (buffer.size() > 0);
+    }
+
+    private boolean write(List<AuditEvent> batch) {
+        try {
+            insert(batch);
+        } catch (RuntimeException ex) {
+            if (isRejected(ex)) {
+                log.warn("The database rejected a batch of {} audit events, writing them one by one",
+                        batch.size(), ex);
+                return writeOneByOne(batch);
+            }
+            writeFailures.increment();
+            log.warn("Writing {} audit events failed, retrying", batch.size(), ex);
+            return false;
+        }
+        written.increment(batch.size());
+        batch.clear();
+        return true;
+    }
+
+    /**
+     * Writes each event of a rejected batch in its own transaction, dropping those the database
+     * still rejects. Stops at a failure of any other kind, keeping the rest of the batch for a retry.
+     */
+    private boolean writeOneByOne(List<AuditEvent> batch) {
+        while (!batch.isEmpty()) {
+            AuditEvent event = batch.get(0);
+            try {
+                insert(List.of(event));
+                written.increment();
+            } catch (RuntimeException ex) {
+                if (!isRejected(ex)) {
+                    writeFailures.increment();
+                    log.warn("Writing {} audit events failed, retrying", batch.size(), ex);
+                    return false;
+                }
+                rejected.increment();
+                log.error("The database rejected audit event {}, dropping it", event, ex);
+            }
+            batch.remove(0);
+        }
+        return true;
+    }
+
+    private void insert(List<AuditEvent> events) {
+        transactionTemplate.executeWithoutResult(status -> repository.insertAll(events));
+    }
+
+    /**
+     * Whether the database refused the data itself, so that writing it again cannot succeed. Lost
+     * connections and other resource failures are worth retrying.
+     */
+    private static boolean isRejected(RuntimeException ex) {
+        return ex instanceof NonTransientDataAccessException
+                && !(ex instanceof NonTransientDataAccessResourceException);
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static String currentClientIp() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
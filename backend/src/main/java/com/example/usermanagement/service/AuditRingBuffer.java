@@ -0,0 +1,104 @@
+package com.example.usermanagement.service;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer.
+ * <p>
+ * Each slot carries a sequence number that says whose turn it is: a producer claims the next
+ * position with one CAS and publishes its element by advancing the slot's sequence, and the
+ * consumer frees the slot by advancing it again by the capacity. Producers never wait for each
+ * other or for the consumer; when the buffer is full, {@link #offer} fails at once.
+ *
+ * @param <E> the element type.
+ */
+final class AuditRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity the number of slots, rounded up to a power of two.
+     */
+    AuditRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element unless the buffer is full. Safe to call from any thread.
+     *
+     * @param element the element.
+     * @return true if it was added.
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // The slot still holds the element from one lap ago
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Moves elements to a collection, oldest first. Must only be called from the consumer thread.
+     *
+     * @param sink the collection to add to.
+     * @param max  the maximum number of elements to move.
+     * @return the number of elements moved.
+     */
+    int drainTo(Collection<? super E> sink, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                // Empty, or the producer that claimed this slot has not published yet
+                break;
+            }
+            sink.add(elements.get(index));
+            elements.set(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head.set(position);
+        return drained;
+    }
+
+    /**
+     * Returns the number of claimed slots, including elements still being published.
+     *
+     * @return the approximate number of elements.
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
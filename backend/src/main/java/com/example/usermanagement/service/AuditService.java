@@ -0,0 +1,102 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.AuditEvent;
+import com.example.usermanagement.dto.AuditFilter;
+import com.example.usermanagement.dto.AuditPageResponse;
+import com.example.usermanagement.exception.BusinessException;
+import com.example.usermanagement.repository.AuditRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Service for reading the audit history written by {@link AuditLog}.
+ */
+@Service
+@Timed("audit.service")
+@RequiredArgsConstructor
+public class AuditService {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final int CURSOR_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private final AuditRepository auditRepository;
+
+    /**
+     * Retrieves one page of audit events, newest first, using keyset pagination.
+     * <p>
+     * Events are written in batches, so the most recent ones may not be visible yet.
+     *
+     * @param cursor the opaque cursor returned with the previous page, or null for the first page.
+     * @param size   the requested page size, or null for the default; capped at {@value #MAX_PAGE_SIZE}.
+     * @param filter the time range and other filters to apply.
+     * @return the page of events and the cursor of the next page.
+     * @throws BusinessException if the cursor, page size or time range is invalid.
+     */
+    public AuditPageResponse getAuditPage(String cursor, Integer size, AuditFilter filter) {
+        int pageSize = resolvePageSize(size);
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getFrom().isBefore(filter.getTo())) {
+            throw new BusinessException("Audit time range must end after it starts");
+        }
+        LocalDateTime afterTime = null;
+        long afterId = 0L;
+        if (cursor != null && !cursor.isEmpty()) {
+            ByteBuffer position = decodeCursor(cursor);
+            try {
+                afterTime = LocalDateTime.ofEpochSecond(position.getLong(), position.getInt(), ZoneOffset.UTC);
+            } catch (DateTimeException ex) {
+                throw new BusinessException("Invalid cursor");
+            }
+            afterId = position.getLong();
+        }
+
+        List<AuditEvent> events = auditRepository.findPage(filter, afterTime, afterId, pageSize + 1);
+        boolean hasNext = events.size() > pageSize;
+        List<AuditEvent> items = hasNext ? events.subList(0, pageSize) : events;
+        return AuditPageResponse.builder()
+                .items(items)
+                .nextCursor(hasNext ? encodeCursor(items.get(items.size() - 1)) : null)
+                .build();
+    }
+
+    private static int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new BusinessException("Page size must be positive");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static String encodeCursor(AuditEvent last) {
+        byte[] bytes = ByteBuffer.allocate(CURSOR_BYTES)
+                .putLong(last.getOccurredAt().toEpochSecond(ZoneOffset.UTC))
+                .putInt(last.getOccurredAt().getNano())
+                .putLong(last.getId())
+                .array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static ByteBuffer decodeCursor(String cursor) {
+        final byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("Invalid cursor");
+        }
+        if (bytes.length != CURSOR_BYTES) {
+            throw new BusinessException("Invalid cursor");
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+}
@@ -1,30 +1,45 @@
 package com.example.usermanagement.service;
 
+import com.example.usermanagement.dto.AuditEvent;
 import com.example.usermanagement.dto.AuthRequest;
 import com.example.usermanagement.dto.AuthResponse;
+import com.example.usermanagement.dto.UserChange;
 import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.event.UsersCreatedEvent;
 import com.example.usermanagement.exception.BusinessException;
 import com.example.usermanagement.model.Role;
 import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.UserChangeOutbox;
 import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.exception.RateLimitExceededException;
+import com.example.usermanagement.security.IssuedToken;
 import com.example.usermanagement.security.JwtUtils;
+import com.example.usermanagement.security.LoginRateLimiter;
+import com.example.usermanagement.security.TokenDenyList;
+import com.example.usermanagement.security.TokenVersionRegistry;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-
+import java.util.List;
 import java.util.Set;
 
 /**
  * Service for handling authentication and registration.
  */
 @Service
+@Timed("auth.service")
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class AuthService {
@@ -34,12 +49,19 @@ public class AuthService {
         private final JwtUtils jwtUtils;
         private final AuthenticationManager authenticationManager;
         private final CustomUserDetailsService userDetailsService;
+        private final TokenVersionRegistry tokenVersions;
+        private final ApplicationEventPublisher eventPublisher;
+        private final LoginRateLimiter loginRateLimiter;
+        private final UserChangeOutbox changeOutbox;
+        private final AuditLog auditLog;
+        private final RefreshTokenService refreshTokens;
+        private final TokenDenyList tokenDenyList;
 
         /**
          * Registers a new user.
          *
          * @param request the UserDto containing registration details.
-         * @return an AuthResponse containing the JWT token.
+         * @return an AuthResponse containing the access and refresh tokens.
          * @throws BusinessException if the email already exists.
          */
         @Transactional
@@ -58,41 +80,115 @@ public class AuthService {
                                 .createDate(LocalDateTime.now())
                                 .build();
 
-                userRepository.save(user);
+                // Flushed so that the refresh token can reference the new row
+                User savedUser = userRepository.saveAndFlush(user);
+                changeOutbox.append(UserChange.Type.CREATED, UserService.mapToDto(savedUser));
+                eventPublisher.publishEvent(new UsersCreatedEvent(List.of(savedUser.getId())));
+                auditLog.recordAfterCommit(AuditEvent.Action.REGISTERED, savedUser.getId(), savedUser.getEmail(), null);
 
                 // Auto login is optional, for now just return generated token or null, usually
                 // login required
                 // But let's return a token for convenience
                 UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-                var jwtToken = jwtUtils.generateToken(userDetails);
-
-                return AuthResponse.builder()
-                                .token(jwtToken)
-                                .name(user.getName())
-                                .email(user.getEmail())
-                                .role(user.getRoles().stream().findFirst().map(Enum::name).orElse("USER"))
-                                .build();
+                IssuedToken accessToken = issueToken(userDetails);
+                return authResponse(savedUser, accessToken, refreshTokens.issue(savedUser.getId(), accessToken));
         }
 
         /**
-         * Authenticates a user.
+         * Authenticates a user and starts a new session.
+         * <p>
+         * The attempt is checked against the login throttle before the password is verified, and
+         * a wrong password counts towards the email's lockout. Every attempt is audited, whatever
+         * its outcome.
+         * <p>
+         * Runs outside any transaction, so that no connection is held while the attempt waits for
+         * the throttle or a hashing thread, or while the password is checked. The reads after it
+         * and the refresh token insert each take their own short transaction, and a password hash
+         * upgrade commits in its own.
          *
-         * @param request the AuthRequest containing email and password.
-         * @return an AuthResponse containing the JWT token.
-         * @throws BusinessException if authentication fails or user is not found.
+         * @param request  the AuthRequest containing email and password.
+         * @param clientIp the address the request came from.
+         * @return an AuthResponse containing the access and refresh tokens.
+         * @throws BusinessException          if authentication fails or user is not found.
+         * @throws RateLimitExceededException if the client or email has made too many attempts.
          */
-        public AuthResponse login(AuthRequest request) {
-                authenticationManager.authenticate(
-                                new UsernamePasswordAuthenticationToken(
-                                                request.getEmail(),
-                                                request.getPassword()));
+        @Transactional(propagation = Propagation.NOT_SUPPORTED)
+        public AuthResponse login(AuthRequest request, String clientIp) {
+                try {
+                        loginRateLimiter.acquire(request.getEmail(), clientIp);
+                } catch (RateLimitExceededException ex) {
+                        auditLog.record(AuditEvent.Action.LOGIN_THROTTLED, null, request.getEmail(), ex.getMessage());
+                        throw ex;
+                }
+                try {
+                        authenticationManager.authenticate(
+                                        new UsernamePasswordAuthenticationToken(
+                                                        request.getEmail(),
+                                                        request.getPassword()));
+                } catch (AuthenticationException ex) {
+                        if (ex instanceof BadCredentialsException) {
+                                loginRateLimiter.recordFailure(request.getEmail());
+                        }
+                        auditLog.record(AuditEvent.Action.LOGIN_FAILED, null, request.getEmail(), ex.getMessage());
+                        throw ex;
+                }
+                loginRateLimiter.recordSuccess(request.getEmail());
                 var user = userRepository.findByEmail(request.getEmail())
                                 .orElseThrow(() -> new BusinessException("User not found"));
+                auditLog.record(AuditEvent.Action.LOGIN_SUCCEEDED, user.getId(), user.getEmail(), null);
                 UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-                var jwtToken = jwtUtils.generateToken(userDetails);
+                IssuedToken accessToken = issueToken(userDetails);
+                return authResponse(user, accessToken, refreshTokens.issue(user.getId(), accessToken));
+        }
+
+        /**
+         * Exchanges a refresh token for a new access token and a new refresh token. The presented
+         * refresh token cannot be used again; presenting it twice ends its session.
+         * <p>
+         * The exchange is committed even when it fails, so that a session revoked for reuse stays
+         * revoked.
+         *
+         * @param refreshToken the refresh token returned by the last login or refresh.
+         * @return an AuthResponse containing the new access and refresh tokens.
+         * @throws BadCredentialsException if the refresh token is unknown, expired, revoked or
+         *                                 already used, or the user has been deactivated.
+         */
+        @Transactional(noRollbackFor = AuthenticationException.class)
+        public AuthResponse refresh(String refreshToken) {
+                RefreshTokenService.Session session = refreshTokens.exchange(refreshToken)
+                                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+                var user = userRepository.findById(session.userId())
+                                .filter(found -> Boolean.TRUE.equals(found.getActive()))
+                                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+                UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
+                IssuedToken accessToken = issueToken(userDetails);
+                return authResponse(user, accessToken, refreshTokens.issue(session, accessToken));
+        }
+
+        /**
+         * Ends a session: its refresh tokens are revoked and the access token presented with the
+         * request is denied until it expires.
+         *
+         * @param refreshToken the session's refresh token, or null.
+         * @param accessToken  the access token to deny, or null.
+         */
+        @Transactional
+        public void logout(String refreshToken, String accessToken) {
+                refreshTokens.revoke(refreshToken);
+                if (accessToken != null) {
+                        jwtUtils.verify(accessToken)
+                                        .ifPresent(token -> tokenDenyList.deny(token.id(), token.expiresAt()));
+                }
+        }
+
+        private IssuedToken issueToken(UserDetails userDetails) {
+                return jwtUtils.issueAccessToken(userDetails, tokenVersions.currentVersion(userDetails.getUsername()));
+        }
 
+        private static AuthResponse authResponse(User user, IssuedToken accessToken, String refreshToken) {
                 return AuthResponse.builder()
-                                .token(jwtToken)
+                                .token(accessToken.value())
+                                .refreshToken(refreshToken)
                                 .name(user.getName())
                                 .email(user.getEmail())
                                 .role(user.getRoles().stream().findFirst().map(Enum::name).orElse("USER"))
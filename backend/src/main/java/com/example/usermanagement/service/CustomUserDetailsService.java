@@ -5,23 +5,42 @@ import com.example.usermanagement.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        return toUserDetails(userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email)));
+    }
+
+    /**
+     * Loads the user a password login is for. Emails the email filter has never seen are refused
+     * without a query, so a user created on another instance may be refused until the change
+     * reaches this one; the login fails as a wrong password would and can be retried.
+     *
+     * @param email the email being logged in to.
+     * @return the user details.
+     * @throws UsernameNotFoundException if no user has this email.
+     */
+    public UserDetails loadUserForLogin(String email) throws UsernameNotFoundException {
+        return toUserDetails(userRepository.findKnownByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email)));
+    }
 
+    private static UserDetails toUserDetails(User user) {
         return new org.springframework.security.core.userdetails.User(
                 user.getEmail(),
                 user.getPassword(),
@@ -29,4 +48,22 @@ public class CustomUserDetailsService implements UserDetailsService {
                         .map(role -> new SimpleGrantedAuthority("ROLE_" + role.name()))
                         .collect(Collectors.toList()));
     }
+
+    /**
+     * Stores a re-hashed password after a successful login with an outdated hash.
+     * Runs in its own transaction so that the upgrade is kept even if the rest of the login, such
+     * as issuing the refresh token, fails and rolls back.
+     *
+     * @param user        the authenticated user.
+     * @param newPassword the password encoded with the current parameters.
+     * @return the user details carrying the new hash.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
 }
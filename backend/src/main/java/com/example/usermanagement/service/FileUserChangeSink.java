@@ -0,0 +1,59 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserChange;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Change sink that appends each change as one NDJSON line to a local file, for testing and for
+ * feeding tools that tail a file. Each batch is written with one call and forced to disk before
+ * the relay marks it published.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "users.changes.sink", havingValue = "file")
+public class FileUserChangeSink implements UserChangeSink {
+
+    private final Path file;
+    private final ObjectWriter writer;
+
+    public FileUserChangeSink(@Value("${users.changes.file}") Path file, ObjectMapper objectMapper) {
+        this.file = file.toAbsolutePath();
+        this.writer = objectMapper.writerFor(UserChange.class);
+        log.info("Publishing user changes to {}", this.file);
+    }
+
+    @Override
+    public void publish(List<UserChange> changes) {
+        try {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream(changes.size() * 256);
+            for (UserChange change : changes) {
+                lines.write(writer.writeValueAsBytes(change));
+                lines.write('\n');
+            }
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
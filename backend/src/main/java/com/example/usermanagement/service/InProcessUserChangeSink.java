@@ -0,0 +1,27 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.event.UserChangesPublishedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Default change sink: publishes each batch as a {@link UserChangesPublishedEvent} to listeners in
+ * this application. Listeners run on the relay thread, and one that throws makes the batch retry.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "users.changes.sink", havingValue = "in-process", matchIfMissing = true)
+public class InProcessUserChangeSink implements UserChangeSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<UserChange> changes) {
+        eventPublisher.publishEvent(new UserChangesPublishedEvent(List.copyOf(changes)));
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.AuditEvent;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserChangedEvent.ChangeType;
+import com.example.usermanagement.event.UsersChangedEvent;
+import com.example.usermanagement.repository.RefreshTokenRepository;
+import com.example.usermanagement.repository.RefreshTokenRepository.AccessTokenRef;
+import com.example.usermanagement.repository.RefreshTokenRepository.StoredRefreshToken;
+import com.example.usermanagement.security.IssuedToken;
+import com.example.usermanagement.security.TokenDenyList;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues, rotates and revokes refresh tokens.
+ * <p>
+ * A refresh token is 256 random bits; only its SHA-256 digest is stored. Every login starts a
+ * family of tokens, and each refresh exchanges the presented token for a successor in the same
+ * family, valid for another {@code jwt.refresh.expiration}. A token can be exchanged once: if an
+ * already exchanged token is presented again, either it or its successor is in the wrong hands, so
+ * the whole family is revoked and the access tokens issued with it are put on the
+ * {@link TokenDenyList}.
+ * <p>
+ * Refresh tokens are revoked when a user's credentials change and removed with the user. Expired
+ * tokens are deleted every {@code jwt.refresh.prune-interval}.
+ */
+@Slf4j
+@Service
+@Timed("auth.refresh")
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository repository;
+    private final TokenDenyList tokenDenyList;
+    private final AuditLog auditLog;
+    private final Duration lifetime;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(
+            RefreshTokenRepository repository,
+            TokenDenyList tokenDenyList,
+            AuditLog auditLog,
+            @Value("${jwt.refresh.expiration}") long lifetimeMillis) {
+        this.repository = repository;
+        this.tokenDenyList = tokenDenyList;
+        this.auditLog = auditLog;
+        this.lifetime = Duration.ofMillis(lifetimeMillis);
+    }
+
+    /**
+     * The login session a valid refresh token belongs to.
+     *
+     * @param userId   the user the token was issued to.
+     * @param familyId the family of tokens started by the login.
+     */
+    public record Session(long userId, UUID familyId) {
+    }
+
+    /**
+     * Issues the first refresh token of a new login session.
+     *
+     * @param userId      the user who logged in.
+     * @param accessToken the access token issued alongside.
+     * @return the refresh token.
+     */
+    @Transactional
+    public String issue(long userId, IssuedToken accessToken) {
+        return issue(new Session(userId, UUID.randomUUID()), accessToken);
+    }
+
+    /**
+     * Issues the successor of a refresh token that has just been exchanged.
+     *
+     * @param session     the session returned by {@link #exchange}.
+     * @param accessToken the access token issued alongside.
+     * @return the refresh token.
+     */
+    @Transactional
+    public String issue(Session session, IssuedToken accessToken) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now();
+        repository.insert(digest(token), session.userId(), session.familyId(), now, now.plus(lifetime),
+                new AccessTokenRef(accessToken.id(), toLocal(accessToken)));
+        return token;
+    }
+
+    /**
+     * Marks a refresh token as exchanged so that it cannot be used again. Presenting a token that
+     * has already been exchanged revokes its family.
+     *
+     * @param token the refresh token.
+     * @return the session to issue the successor in, or empty if the token is unknown, expired or
+     *         revoked.
+     */
+    @Transactional
+    public Optional<Session> exchange(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<StoredRefreshToken> found = repository.findForUpdate(digest(token));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        StoredRefreshToken stored = found.get();
+        LocalDateTime now = LocalDateTime.now();
+        if (stored.revoked() || stored.expiresAt().isBefore(now)) {
+            return Optional.empty();
+        }
+        if (stored.used()) {
+            log.warn("Refresh token of user {} was reused, revoking its session", stored.userId());
+            revokeFamily(stored.familyId(), now);
+            auditLog.record(AuditEvent.Action.REFRESH_TOKEN_REUSED, stored.userId(), null, "Session revoked");
+            return Optional.empty();
+        }
+        repository.markUsed(stored.id(), now);
+        return Optional.of(new Session(stored.userId(), stored.familyId()));
+    }
+
+    /**
+     * Ends the login session a refresh token belongs to. Unknown tokens are ignored.
+     *
+     * @param token the refresh token.
+     */
+    @Transactional
+    public void revoke(String token) {
+        if (token == null || token.isEmpty()) {
+            return;
+        }
+        repository.findForUpdate(digest(token))
+                .ifPresent(stored -> revokeFamily(stored.familyId(), LocalDateTime.now()));
+    }
+
+    /**
+     * Revokes a user's refresh tokens when a change to their credentials is made, in the same
+     * transaction. Deleted users' tokens are removed with them.
+     *
+     * @param event the user change event.
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.credentialsChanged() && event.type() == ChangeType.UPDATED) {
+            repository.revokeAllOf(List.of(event.userId()), LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Revokes the refresh tokens of users whose credentials a batch operation changed, with one
+     * statement per event.
+     *
+     * @param event the users changed event.
+     */
+    @EventListener
+    public void onUsersChanged(UsersChangedEvent event) {
+        List<Long> userIds = event.changes().stream()
+                .filter(change -> change.credentialsChanged() && change.type() == ChangeType.UPDATED)
+                .map(UserChangedEvent::userId)
+                .toList();
+        if (!userIds.isEmpty()) {
+            repository.revokeAllOf(userIds, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Deletes expired refresh tokens. Exchanged tokens are kept until then so that their reuse is
+     * still detected.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh.prune-interval}")
+    public void prune() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private void revokeFamily(UUID familyId, LocalDateTime now) {
+        for (AccessTokenRef accessToken : repository.revokeFamily(familyId, now)) {
+            tokenDenyList.deny(accessToken.id(), accessToken.expiresAt().atZone(ZoneId.systemDefault()).toInstant());
+        }
+    }
+
+    private static LocalDateTime toLocal(IssuedToken accessToken) {
+        return LocalDateTime.ofInstant(accessToken.expiresAt(), ZoneId.systemDefault());
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
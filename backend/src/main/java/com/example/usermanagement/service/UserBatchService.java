@@ -0,0 +1,272 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.AuditEvent;
+import com.example.usermanagement.dto.UserBatchGetResponse;
+import com.example.usermanagement.dto.UserBatchItemResult;
+import com.example.usermanagement.dto.UserBatchItemResult.Status;
+import com.example.usermanagement.dto.UserBatchPatchRequest;
+import com.example.usermanagement.dto.UserBatchResult;
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserChangedEvent.ChangeType;
+import com.example.usermanagement.event.UsersChangedEvent;
+import com.example.usermanagement.exception.BusinessException;
+import com.example.usermanagement.repository.UserBatchRepository;
+import com.example.usermanagement.repository.UserChangeOutbox;
+import com.example.usermanagement.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Service for reading, updating and deleting many users at once.
+ * <p>
+ * IDs are processed in chunks of {@code users.batch.chunk-size}, each in its own transaction. A
+ * chunk locks the users it finds with one query and changes them with a few set-based statements,
+ * however many users it holds; no entities are loaded. Changed users get a new version, are
+ * evicted from the second-level cache, are appended to the change feed outbox and the audit log,
+ * and are announced with one {@link UsersChangedEvent} per chunk. A chunk that fails is rolled back
+ * and its users reported as failed without affecting the other chunks.
+ */
+@Slf4j
+@Service
+@Timed("users.batch.service")
+public class UserBatchService {
+
+    static final int MAX_BATCH_SIZE = 100_000;
+
+    private final UserRepository userRepository;
+    private final UserBatchRepository userBatchRepository;
+    private final UserChangeOutbox changeOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuditLog auditLog;
+    private final int chunkSize;
+
+    public UserBatchService(
+            UserRepository userRepository,
+            UserBatchRepository userBatchRepository,
+            UserChangeOutbox changeOutbox,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            AuditLog auditLog,
+            @Value("${users.batch.chunk-size}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userBatchRepository = userBatchRepository;
+        this.changeOutbox = changeOutbox;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.auditLog = auditLog;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Retrieves users by ID, with one query per chunk.
+     *
+     * @param ids the IDs; duplicates are ignored.
+     * @return the users found, in request order, and the IDs that were not.
+     * @throws BusinessException if no IDs or too many are given.
+     */
+    public UserBatchGetResponse getUsers(List<Long> ids) {
+        List<Long> distinct = distinctIds(ids);
+        Map<Long, UserDto> found = new HashMap<>();
+        for (List<Long> chunk : chunks(distinct)) {
+            userRepository.findSummariesByIdIn(chunk)
+                    .forEach(summary -> found.put(summary.getId(), UserService.mapToDto(summary)));
+        }
+        List<UserDto> users = new ArrayList<>(found.size());
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : distinct) {
+            UserDto user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                notFound.add(id);
+            }
+        }
+        return UserBatchGetResponse.builder()
+                .users(users)
+                .notFound(notFound)
+                .build();
+    }
+
+    /**
+     * Sets the active flag of, grants a role to and/or takes a role away from many users.
+     *
+     * @param request the IDs and the changes to make; at least one change is required.
+     * @return the outcome for each ID.
+     * @throws BusinessException if the request is invalid.
+     */
+    public UserBatchResult patchUsers(UserBatchPatchRequest request) {
+        if (request.getActive() == null && request.getAddRole() == null && request.getRemoveRole() == null) {
+            throw new BusinessException("Nothing to change");
+        }
+        if (request.getAddRole() != null && request.getAddRole() == request.getRemoveRole()) {
+            throw new BusinessException("Cannot add and remove the same role");
+        }
+        List<Long> ids = distinctIds(request.getIds());
+        Map<Long, Status> statuses = new HashMap<>();
+        for (List<Long> chunk : chunks(ids)) {
+            runChunk(chunk, statuses, chunkStatuses -> patchChunk(chunk, request, chunkStatuses));
+        }
+        return report(ids, statuses);
+    }
+
+    /**
+     * Deletes many users.
+     *
+     * @param ids the IDs; duplicates are ignored.
+     * @return the outcome for each ID.
+     * @throws BusinessException if no IDs or too many are given.
+     */
+    public UserBatchResult deleteUsers(List<Long> ids) {
+        List<Long> distinct = distinctIds(ids);
+        Map<Long, Status> statuses = new HashMap<>();
+        for (List<Long> chunk : chunks(distinct)) {
+            runChunk(chunk, statuses, chunkStatuses -> deleteChunk(chunk, chunkStatuses));
+        }
+        return report(distinct, statuses);
+    }
+
+    private void patchChunk(List<Long> chunk, UserBatchPatchRequest request, Map<Long, Status> statuses) {
+        Map<Long, String> emails = userBatchRepository.lockExisting(chunk);
+        if (emails.isEmpty()) {
+            return;
+        }
+        Set<Long> changed = new LinkedHashSet<>();
+        if (request.getActive() != null) {
+            changed.addAll(userBatchRepository.updateActive(emails.keySet(), request.getActive()));
+        }
+        if (request.getAddRole() != null) {
+            changed.addAll(userBatchRepository.addRole(emails.keySet(), request.getAddRole()));
+        }
+        if (request.getRemoveRole() != null) {
+            changed.addAll(userBatchRepository.removeRole(emails.keySet(), request.getRemoveRole()));
+        }
+        emails.keySet().forEach(id -> statuses.put(id, changed.contains(id) ? Status.UPDATED : Status.UNCHANGED));
+        if (changed.isEmpty()) {
+            return;
+        }
+        userBatchRepository.bumpVersions(changed);
+        userBatchRepository.evictAfterCommit(changed, false);
+        List<UserDto> updated = userRepository.findSummariesByIdIn(List.copyOf(changed)).stream()
+                .map(UserService::mapToDto)
+                .toList();
+        changeOutbox.appendAll(UserChange.Type.UPDATED, updated);
+        // Active flag and roles are credentials, so every changed user's tokens are revoked
+        eventPublisher.publishEvent(new UsersChangedEvent(changed.stream()
+                .map(id -> new UserChangedEvent(id, emails.get(id), ChangeType.UPDATED, true, false))
+                .toList()));
+        String details = describe(request);
+        changed.forEach(id -> auditLog.recordAfterCommit(AuditEvent.Action.USER_UPDATED, id, emails.get(id), details));
+    }
+
+    private void deleteChunk(List<Long> chunk, Map<Long, Status> statuses) {
+        Map<Long, String> emails = userBatchRepository.lockExisting(chunk);
+        if (emails.isEmpty()) {
+            return;
+        }
+        List<UserDto> deleted = userRepository.findSummariesByIdIn(List.copyOf(emails.keySet())).stream()
+                .map(UserService::mapToDto)
+                .toList();
+        changeOutbox.appendAll(UserChange.Type.DELETED, deleted);
+        userBatchRepository.deleteAll(emails.keySet());
+        userBatchRepository.evictAfterCommit(emails.keySet(), true);
+        emails.keySet().forEach(id -> statuses.put(id, Status.DELETED));
+        eventPublisher.publishEvent(new UsersChangedEvent(emails.entrySet().stream()
+                .map(entry -> new UserChangedEvent(entry.getKey(), entry.getValue(), ChangeType.DELETED, true, false))
+                .toList()));
+        emails.forEach((id, email) -> auditLog.recordAfterCommit(AuditEvent.Action.USER_DELETED, id, email, "Batch"));
+    }
+
+    private static String describe(UserBatchPatchRequest request) {
+        List<String> changes = new ArrayList<>();
+        if (request.getActive() != null) {
+            changes.add("set active=" + request.getActive());
+        }
+        if (request.getAddRole() != null) {
+            changes.add("added role " + request.getAddRole());
+        }
+        if (request.getRemoveRole() != null) {
+            changes.add("removed role " + request.getRemoveRole());
+        }
+        return "Batch: " + String.join(", ", changes);
+    }
+
+    /**
+     * Runs one chunk in its own transaction. Statuses are only kept if it commits; if it fails,
+     * every ID of the chunk is marked as failed.
+     */
+    private void runChunk(List<Long> chunk, Map<Long, Status> statuses, Consumer<Map<Long, Status>> work) {
+        Map<Long, Status> chunkStatuses = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> work.accept(chunkStatuses));
+            statuses.putAll(chunkStatuses);
+        } catch (DataAccessException ex) {
+            log.warn("Batch chunk of {} users starting at ID {} rolled back: {}",
+                    chunk.size(), chunk.get(0), ex.getMostSpecificCause().getMessage());
+            chunk.forEach(id -> statuses.put(id, Status.FAILED));
+        }
+    }
+
+    private UserBatchResult report(List<Long> ids, Map<Long, Status> statuses) {
+        List<UserBatchItemResult> results = new ArrayList<>(ids.size());
+        int changed = 0;
+        int unchanged = 0;
+        int notFound = 0;
+        int failed = 0;
+        for (Long id : ids) {
+            Status status = statuses.getOrDefault(id, Status.NOT_FOUND);
+            switch (status) {
+                case UPDATED, DELETED -> changed++;
+                case UNCHANGED -> unchanged++;
+                case NOT_FOUND -> notFound++;
+                case FAILED -> failed++;
+            }
+            results.add(UserBatchItemResult.builder().id(id).status(status).build());
+        }
+        return UserBatchResult.builder()
+                .changed(changed)
+                .unchanged(unchanged)
+                .notFound(notFound)
+                .failed(failed)
+                .results(results)
+                .build();
+    }
+
+    private static List<Long> distinctIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BusinessException("At least one user ID is required");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new BusinessException("User IDs must not be null");
+        }
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        if (distinct.size() > MAX_BATCH_SIZE) {
+            throw new BusinessException("At most " + MAX_BATCH_SIZE + " users can be processed at once");
+        }
+        return distinct;
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.dto.UserChangesResponse;
+import com.example.usermanagement.exception.BusinessException;
+import com.example.usermanagement.exception.ChangeHistoryExpiredException;
+import com.example.usermanagement.repository.UserChangeOutbox;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable feed of published user changes, for consumers that synchronise incrementally instead
+ * of re-reading every user.
+ * <p>
+ * A consumer passes the {@code next} position of its previous response as {@code since}. When
+ * nothing new has been published it may long-poll: the request is parked without holding a thread
+ * until the {@link UserChangeRelay} reports that the feed has moved, or until the wait runs out.
+ * Parked requests are answered on the relay thread from one read starting at the lowest position
+ * any of them waits after, however many there are.
+ * <p>
+ * Publishes the number of parked requests as {@code users.changes.waiters}.
+ */
+@Service
+public class UserChangeFeed {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+    static final long MAX_WAIT_SECONDS = 30;
+
+    private final UserChangeOutbox outbox;
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+
+    public UserChangeFeed(UserChangeOutbox outbox, MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        Gauge.builder("users.changes.waiters", waiters, Set::size)
+                .description("Change feed requests waiting for new changes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads the changes published after a position, waiting for some if there are none yet.
+     *
+     * @param since       the position to read after, or null to start from the latest position.
+     * @param limit       the maximum number of changes, or null for the default; capped at {@value #MAX_LIMIT}.
+     * @param waitSeconds how long to wait when there are no changes; 0 to answer at once, at most
+     *                    {@value #MAX_WAIT_SECONDS}.
+     * @return the result, set now or once changes arrive; empty if the wait ran out.
+     * @throws BusinessException             if a parameter is invalid.
+     * @throws ChangeHistoryExpiredException if changes after {@code since} are no longer retained.
+     */
+    public DeferredResult<UserChangesResponse> poll(Long since, Integer limit, long waitSeconds) {
+        if (since != null && since < 0) {
+            throw new BusinessException("Position must not be negative");
+        }
+        if (limit != null && limit < 1) {
+            throw new BusinessException("Limit must be positive");
+        }
+        if (waitSeconds < 0 || waitSeconds > MAX_WAIT_SECONDS) {
+            throw new BusinessException("Wait must be between 0 and " + MAX_WAIT_SECONDS + " seconds");
+        }
+        long position = since != null ? since : outbox.findLatestPosition();
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        UserChangesResponse page = read(position, size);
+        if (!page.getChanges().isEmpty() || waitSeconds == 0) {
+            DeferredResult<UserChangesResponse> result = new DeferredResult<>();
+            result.setResult(page);
+            return result;
+        }
+
+        DeferredResult<UserChangesResponse> result = new DeferredResult<>(waitSeconds * 1000, page);
+        Waiter waiter = new Waiter(position, size, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+        // Changes published between the read above and registering would otherwise wait for the next ones
+        deliver(waiter, outbox.findLatestPosition());
+        return result;
+    }
+
+    /**
+     * Answers the parked requests that the feed has moved past. Called by the relay after each run.
+     */
+    public void wakeUp() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        long latest = outbox.findLatestPosition();
+        List<Waiter> due = waiters.stream()
+                .filter(waiter -> waiter.since() < latest && !waiter.result().isSetOrExpired())
+                .toList();
+        if (due.isEmpty()) {
+            return;
+        }
+        long lowest = due.stream().mapToLong(Waiter::since).min().getAsLong();
+        List<UserChange> changes;
+        long prunedThrough;
+        try {
+            changes = outbox.findPublishedAfter(lowest, MAX_LIMIT);
+            prunedThrough = outbox.findPrunedThrough();
+        } catch (RuntimeException ex) {
+            due.forEach(waiter -> waiter.result().setErrorResult(ex));
+            return;
+        }
+        for (Waiter waiter : due) {
+            if (waiter.since() < prunedThrough) {
+                waiter.result().setErrorResult(expired(waiter.since()));
+                continue;
+            }
+            int from = firstAfter(changes, waiter.since());
+            if (from == changes.size()) {
+                // Only when the shared read stopped at MAX_LIMIT before reaching this waiter
+                deliver(waiter, latest);
+            } else {
+                List<UserChange> page = changes.subList(from, Math.min(changes.size(), from + waiter.limit()));
+                waiter.result().setResult(response(waiter.since(), List.copyOf(page)));
+            }
+        }
+    }
+
+    private void deliver(Waiter waiter, long latest) {
+        if (waiter.since() >= latest || waiter.result().isSetOrExpired()) {
+            return;
+        }
+        try {
+            waiter.result().setResult(read(waiter.since(), waiter.limit()));
+        } catch (RuntimeException ex) {
+            waiter.result().setErrorResult(ex);
+        }
+    }
+
+    private UserChangesResponse read(long since, int limit) {
+        List<UserChange> changes = outbox.findPublishedAfter(since, limit);
+        // Checked after reading, so a prune that removed part of what was just read is noticed
+        if (since < outbox.findPrunedThrough()) {
+            throw expired(since);
+        }
+        return response(since, changes);
+    }
+
+    /**
+     * Returns the index of the first change, in position order, that is after a position.
+     */
+    private static int firstAfter(List<UserChange> changes, long since) {
+        int low = 0;
+        int high = changes.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (changes.get(mid).getPosition() <= since) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static ChangeHistoryExpiredException expired(long since) {
+        return new ChangeHistoryExpiredException(
+                "Changes after position " + since + " are no longer retained, resynchronise from an export");
+    }
+
+    private static UserChangesResponse response(long since, List<UserChange> changes) {
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getPosition();
+        return UserChangesResponse.builder()
+                .changes(changes)
+                .next(next)
+                .build();
+    }
+
+    private record Waiter(long since, int limit, DeferredResult<UserChangesResponse> result) {
+    }
+}
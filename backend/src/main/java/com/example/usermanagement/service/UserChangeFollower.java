@@ -0,0 +1,86 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.event.UserChangesFollowedEvent;
+import com.example.usermanagement.repository.UserChangeOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Follows the published change feed on every instance and hands each batch to local listeners as
+ * a {@link UserChangesFollowedEvent}, so that in-memory state built from the users table also sees
+ * writes made on other instances.
+ * <p>
+ * The follower starts at the latest position before any other listener handles
+ * {@link ApplicationReadyEvent}, so state loaded on startup overlaps the followed changes instead
+ * of missing some. It then reads every {@code follow-interval}, repeating while full batches come
+ * back. A change therefore reaches other instances within the relay interval plus the follow
+ * interval of its commit.
+ */
+@Slf4j
+@Component
+public class UserChangeFollower {
+
+    private final UserChangeOutbox outbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private volatile Long position;
+
+    public UserChangeFollower(
+            UserChangeOutbox outbox,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${users.changes.batch-size}") int batchSize) {
+        this.outbox = outbox;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Starts following from the latest published position.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        position = outbox.findLatestPosition();
+    }
+
+    /**
+     * Reads the changes published since the last run and hands them to listeners. A failed read or
+     * listener is retried from the same position on the next run.
+     */
+    @Scheduled(fixedDelayString = "${users.changes.follow-interval}")
+    public void follow() {
+        if (position == null) {
+            return;
+        }
+        try {
+            List<UserChange> changes;
+            do {
+                changes = outbox.findPublishedAfter(position, batchSize);
+                // Checked after reading, so a prune that removed part of what was just read is noticed
+                if (position < outbox.findPrunedThrough()) {
+                    log.warn("Changes after position {} were pruned before this instance read them, reloading",
+                            position);
+                    position = outbox.findLatestPosition();
+                    eventPublisher.publishEvent(new UserChangesFollowedEvent(List.of(), true));
+                    return;
+                }
+                if (!changes.isEmpty()) {
+                    eventPublisher.publishEvent(new UserChangesFollowedEvent(List.copyOf(changes), false));
+                    position = changes.get(changes.size() - 1).getPosition();
+                }
+            } while (changes.size() == batchSize);
+        } catch (RuntimeException ex) {
+            log.warn("Following user changes failed, retrying from position {} on the next run", position, ex);
+        }
+    }
+}
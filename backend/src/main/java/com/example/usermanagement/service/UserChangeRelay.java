@@ -0,0 +1,105 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.repository.UserChangeOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Publishes user changes from the outbox to the {@link UserChangeSink} in batches.
+ * <p>
+ * Every {@code relay-interval} the relay takes the outbox's relay lock, gives the oldest
+ * unpublished changes their feed positions, hands them to the sink and commits, repeating while
+ * full batches come back. If the sink fails, the transaction rolls back and the same changes are
+ * offered on the next run, so delivery is at least once. With several instances, one relays while
+ * the others skip. After each run, long-polling feed consumers are woken if the feed has moved,
+ * wherever it was published.
+ * <p>
+ * Published changes older than {@code retention} are pruned every {@code prune-interval}.
+ * Publishes {@code users.changes.relayed} and {@code users.changes.relay.failures}.
+ */
+@Slf4j
+@Component
+public class UserChangeRelay {
+
+    private final UserChangeOutbox outbox;
+    private final UserChangeSink sink;
+    private final UserChangeFeed feed;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+    private final Counter relayed;
+    private final Counter failures;
+
+    public UserChangeRelay(
+            UserChangeOutbox outbox,
+            UserChangeSink sink,
+            UserChangeFeed feed,
+            TransactionTemplate transactionTemplate,
+            @Value("${users.changes.batch-size}") int batchSize,
+            @Value("${users.changes.retention}") long retentionMillis,
+            MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        this.sink = sink;
+        this.feed = feed;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofMillis(retentionMillis);
+        this.relayed = Counter.builder("users.changes.relayed")
+                .description("User changes published to the change sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("users.changes.relay.failures")
+                .description("Relay runs rolled back because publishing failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes everything unpublished, then wakes feed consumers.
+     */
+    @Scheduled(fixedDelayString = "${users.changes.relay-interval}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                published = relayBatch();
+            } while (published == batchSize);
+        } catch (RuntimeException ex) {
+            failures.increment();
+            log.warn("Publishing user changes failed, retrying on the next run", ex);
+        }
+        feed.wakeUp();
+    }
+
+    /**
+     * Removes published changes older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${users.changes.prune-interval}")
+    public void prune() {
+        outbox.pruneOlderThan(retention);
+    }
+
+    private int relayBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            if (!outbox.tryLockRelay()) {
+                return 0;
+            }
+            List<UserChange> batch = outbox.findUnpublished(batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            outbox.markPublished(batch);
+            sink.publish(batch);
+            return batch.size();
+        });
+        relayed.increment(published);
+        return published;
+    }
+}
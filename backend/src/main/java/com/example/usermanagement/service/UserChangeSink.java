@@ -0,0 +1,20 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserChange;
+
+import java.util.List;
+
+/**
+ * Destination the {@link UserChangeRelay} publishes user changes to. The implementation is chosen
+ * with {@code users.changes.sink}.
+ */
+public interface UserChangeSink {
+
+    /**
+     * Publishes a batch of changes. Called inside the relay's transaction; if this throws, the
+     * batch stays unpublished and is offered again, so a sink must tolerate seeing a change twice.
+     *
+     * @param changes the changes, in feed order and with their positions set.
+     */
+    void publish(List<UserChange> changes);
+}
@@ -0,0 +1,192 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.dto.UserFileFormat;
+import com.example.usermanagement.model.Role;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserRoleRow;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service for exporting every user as a stream.
+ * <p>
+ * Users are read through a database cursor and written as they arrive, so memory use does not
+ * depend on the number of users.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserExportService {
+
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes every user, with their roles, to the given stream. The stream is not closed.
+     *
+     * @param format the output format.
+     * @param out    the stream to write to.
+     * @throws IOException if writing to the stream fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(UserFileFormat format, OutputStream out) throws IOException {
+        try (Stream<UserRoleRow> rows = userRepository.streamAllWithRoles();
+             UserSink sink = format == UserFileFormat.CSV ? new CsvSink(out) : new NdjsonSink(out, objectMapper)) {
+            writeGrouped(rows.iterator(), sink);
+        }
+    }
+
+    /**
+     * Folds consecutive rows of the same user into one UserDto and hands each user to the sink.
+     */
+    private static void writeGrouped(Iterator<UserRoleRow> rows, UserSink sink) throws IOException {
+        UserDto current = null;
+        int written = 0;
+        while (rows.hasNext()) {
+            UserRoleRow row = rows.next();
+            if (current == null || !current.getId().equals(row.id())) {
+                if (current != null) {
+                    sink.write(current);
+                    if (++written % FLUSH_INTERVAL == 0) {
+                        sink.flush();
+                    }
+                }
+                current = UserDto.builder()
+                        .id(row.id())
+                        .name(row.name())
+                        .email(row.email())
+                        .roles(EnumSet.noneOf(Role.class))
+                        .createDate(row.createDate())
+                        .active(row.active())
+                        .build();
+            }
+            if (row.role() != null) {
+                current.getRoles().add(row.role());
+            }
+        }
+        if (current != null) {
+            sink.write(current);
+        }
+    }
+
+    private interface UserSink extends AutoCloseable {
+
+        void write(UserDto user) throws IOException;
+
+        void flush() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * Writes one JSON document per line.
+     */
+    private static final class NdjsonSink implements UserSink {
+
+        private final JsonGenerator generator;
+        private final ObjectWriter writer;
+
+        NdjsonSink(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+            this.writer = objectMapper.writerFor(UserDto.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        public void write(UserDto user) throws IOException {
+            writer.writeValue(generator, user);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    /**
+     * Writes RFC 4180 CSV with a header row; roles are separated by semicolons.
+     */
+    private static final class CsvSink implements UserSink {
+
+        private static final String FORMULA_TRIGGERS = "=+-@\t\r";
+
+        private final Writer writer;
+
+        CsvSink(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.writer.write("id,name,email,roles,createDate,active\r\n");
+        }
+
+        @Override
+        public void write(UserDto user) throws IOException {
+            writer.write(String.valueOf(user.getId()));
+            writer.write(',');
+            writer.write(escape(user.getName()));
+            writer.write(',');
+            writer.write(escape(user.getEmail()));
+            writer.write(',');
+            writer.write(user.getRoles().stream().map(Enum::name).collect(Collectors.joining(";")));
+            writer.write(',');
+            writer.write(String.valueOf(user.getCreateDate()));
+            writer.write(',');
+            writer.write(String.valueOf(user.getActive()));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Flush only: the response stream belongs to the caller
+            writer.flush();
+        }
+
+        /**
+         * Quotes a user-supplied field. Values a spreadsheet would evaluate as a formula get a
+         * leading apostrophe, as OWASP recommends against CSV injection.
+         */
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (!value.isEmpty() && FORMULA_TRIGGERS.indexOf(value.charAt(0)) >= 0) {
+                return "\"'" + value.replace("\"", "\"\"") + '"';
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
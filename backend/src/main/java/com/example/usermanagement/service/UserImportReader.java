@@ -0,0 +1,173 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.dto.UserFileFormat;
+import com.example.usermanagement.exception.BusinessException;
+import com.example.usermanagement.model.Role;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Reads an NDJSON or CSV upload one line at a time, turning each line into an {@link ImportRow}.
+ * The underlying stream is not closed.
+ * <p>
+ * A line that cannot be parsed yields a row with an error instead of failing the whole upload.
+ * CSV files need a header naming the columns {@code name}, {@code email}, {@code password} and,
+ * optionally, {@code roles} (semicolon separated) and {@code active}. Quoted CSV fields may not
+ * span lines.
+ */
+class UserImportReader implements Iterator<UserImportReader.ImportRow> {
+
+    /**
+     * One line of the upload: either a parsed user or the reason it could not be parsed.
+     */
+    record ImportRow(long line, UserDto user, String error) {
+
+        boolean isValid() {
+            return error == null;
+        }
+    }
+
+    private final BufferedReader reader;
+    private final UserFileFormat format;
+    private final ObjectReader jsonReader;
+    private Map<String, Integer> csvColumns;
+    private long lineNumber;
+    private String nextLine;
+
+    UserImportReader(UserFileFormat format, InputStream in, ObjectReader jsonReader) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.format = format;
+        this.jsonReader = jsonReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextLine == null) {
+            nextLine = readNonBlankLine();
+            if (nextLine != null && format == UserFileFormat.CSV && csvColumns == null) {
+                csvColumns = parseHeader(nextLine);
+                nextLine = readNonBlankLine();
+            }
+        }
+        return nextLine != null;
+    }
+
+    @Override
+    public ImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        nextLine = null;
+        return format == UserFileFormat.CSV ? parseCsv(line) : parseJson(line);
+    }
+
+    private String readNonBlankLine() {
+        try {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+            } while (line != null && line.isBlank());
+            return line;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private ImportRow parseJson(String line) {
+        try {
+            return new ImportRow(lineNumber, jsonReader.readValue(line), null);
+        } catch (JsonProcessingException ex) {
+            return new ImportRow(lineNumber, null, "Malformed JSON");
+        }
+    }
+
+    private ImportRow parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        try {
+            Set<Role> roles = EnumSet.noneOf(Role.class);
+            for (String role : field(fields, "roles").split(";")) {
+                if (!role.isBlank()) {
+                    roles.add(Role.valueOf(role.trim().toUpperCase()));
+                }
+            }
+            String active = field(fields, "active");
+            UserDto user = UserDto.builder()
+                    .name(field(fields, "name"))
+                    .email(field(fields, "email"))
+                    .password(field(fields, "password"))
+                    .roles(roles.isEmpty() ? null : roles)
+                    .active(active.isBlank() ? null : Boolean.valueOf(active.trim()))
+                    .build();
+            return new ImportRow(lineNumber, user, null);
+        } catch (IllegalArgumentException ex) {
+            return new ImportRow(lineNumber, null, "Unknown role");
+        }
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = csvColumns.get(column);
+        return index != null && index < fields.size() ? fields.get(index) : "";
+    }
+
+    private static Map<String, Integer> parseHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        if (!columns.keySet().containsAll(Arrays.asList("name", "email", "password"))) {
+            throw new BusinessException("CSV header must contain name, email and password");
+        }
+        return columns;
+    }
+
+    /**
+     * Splits one RFC 4180 line, honouring quoted fields and doubled quotes.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.AuditEvent;
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.dto.UserFileFormat;
+import com.example.usermanagement.dto.UserImportError;
+import com.example.usermanagement.dto.UserImportResult;
+import com.example.usermanagement.event.UsersCreatedEvent;
+import com.example.usermanagement.model.Role;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.UserBatchRepository;
+import com.example.usermanagement.repository.UserChangeOutbox;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.security.OffloadedPasswordEncoder;
+import com.example.usermanagement.service.UserImportReader.ImportRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Service for importing large numbers of users from an NDJSON or CSV upload.
+ * <p>
+ * The upload is read in chunks. Each chunk is checked against existing emails with one query,
+ * its passwords are hashed in parallel, and it is written with JDBC batch inserts in its own transaction, together with its change feed
+ * entries. A row that fails validation is reported without affecting the others.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final UserRepository userRepository;
+    private final UserBatchRepository userBatchRepository;
+    private final UserChangeOutbox changeOutbox;
+    private final OffloadedPasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuditLog auditLog;
+    private final int chunkSize;
+
+    public UserImportService(
+            UserRepository userRepository,
+            UserBatchRepository userBatchRepository,
+            UserChangeOutbox changeOutbox,
+            OffloadedPasswordEncoder passwordEncoder,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            AuditLog auditLog,
+            @Value("${users.import.chunk-size}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userBatchRepository = userBatchRepository;
+        this.changeOutbox = changeOutbox;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.auditLog = auditLog;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports every user in the upload.
+     *
+     * @param format the upload format.
+     * @param in     the upload; read to the end but not closed.
+     * @return counts of processed, imported and failed rows, and the first failures.
+     * @throws java.io.UncheckedIOException if the upload cannot be read.
+     */
+    public UserImportResult importUsers(UserFileFormat format, InputStream in) {
+        ImportReport report = new ImportReport();
+        UserImportReader reader = new UserImportReader(format, in, objectMapper.readerFor(UserDto.class));
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        while (reader.hasNext()) {
+            chunk.add(reader.next());
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+        return report.toResult();
+    }
+
+    private void importChunk(List<ImportRow> rows, ImportReport report) {
+        List<ImportRow> candidates = validate(rows, report);
+        if (candidates.isEmpty()) {
+            return;
+        }
+        List<String> hashes = passwordEncoder.encodeAll(candidates.stream()
+                .map(row -> row.user().getPassword())
+                .toList());
+        List<User> users = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            users.add(toUser(candidates.get(i).user(), hashes.get(i)));
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> ids = userBatchRepository.reserveIds(users.size());
+                for (int i = 0; i < users.size(); i++) {
+                    users.get(i).setId(ids.get(i));
+                }
+                userBatchRepository.insertAll(users);
+                changeOutbox.appendAll(UserChange.Type.CREATED, users.stream().map(UserService::mapToDto).toList());
+                eventPublisher.publishEvent(new UsersCreatedEvent(ids));
+                users.forEach(user -> auditLog.recordAfterCommit(
+                        AuditEvent.Action.USER_CREATED, user.getId(), user.getEmail(), "Imported"));
+            });
+            report.imported(users.size());
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Import chunk of {} rows starting at line {} rolled back: {}",
+                    candidates.size(), candidates.get(0).line(), ex.getMostSpecificCause().getMessage());
+            candidates.forEach(row -> report.failed(row, "Rejected by the database, chunk rolled back"));
+        }
+    }
+
+    /**
+     * Drops rows that failed to parse, miss required fields, repeat an email within the chunk or
+     * use an email that is already registered, recording each as a failure. Emails are compared
+     * ignoring case, as the database does.
+     */
+    private List<ImportRow> validate(List<ImportRow> rows, ImportReport report) {
+        List<ImportRow> wellFormed = new ArrayList<>(rows.size());
+        Set<String> emails = new HashSet<>();
+        for (ImportRow row : rows) {
+            report.processed();
+            String error = row.isValid() ? missingField(row.user()).orElse(null) : row.error();
+            if (error == null && !emails.add(normalize(row.user().getEmail()))) {
+                error = "Duplicate email in upload";
+            }
+            if (error != null) {
+                report.failed(row, error);
+            } else {
+                wellFormed.add(row);
+            }
+        }
+        Set<String> existing = emails.isEmpty() ? Set.of()
+                : Set.copyOf(userRepository.findExistingEmails(List.copyOf(emails)));
+        List<ImportRow> candidates = new ArrayList<>(wellFormed.size());
+        for (ImportRow row : wellFormed) {
+            if (existing.contains(normalize(row.user().getEmail()))) {
+                report.failed(row, "Email already exists");
+            } else {
+                candidates.add(row);
+            }
+        }
+        return candidates;
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static Optional<String> missingField(UserDto user) {
+        if (user.getName() == null || user.getName().isBlank()) {
+            return Optional.of("Name is required");
+        }
+        if (user.getEmail() == null || user.getEmail().isBlank()) {
+            return Optional.of("Email is required");
+        }
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            return Optional.of("Password is required");
+        }
+        return Optional.empty();
+    }
+
+    private static User toUser(UserDto request, String encodedPassword) {
+        return User.builder()
+                .name(request.getName())
+                .email(request.getEmail())
+                .password(encodedPassword)
+                .roles(request.getRoles() != null && !request.getRoles().isEmpty() ? request.getRoles()
+                        : Set.of(Role.USER))
+                .active(request.getActive() != null ? request.getActive() : true)
+                .createDate(LocalDateTime.now())
+                .version(0L) // The column default the batch insert relies on
+                .build();
+    }
+
+    /**
+     * Running totals for one import; keeps at most {@value #MAX_REPORTED_ERRORS} error details.
+     */
+    private static final class ImportReport {
+
+        private final List<UserImportError> errors = new ArrayList<>();
+        private long processed;
+        private long imported;
+        private long failed;
+
+        void processed() {
+            processed++;
+        }
+
+        void imported(int count) {
+            imported += count;
+        }
+
+        void failed(ImportRow row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(UserImportError.builder()
+                        .line(row.line())
+                        .email(row.user() != null ? row.user().getEmail() : null)
+                        .message(message)
+                        .build());
+            }
+        }
+
+        UserImportResult toResult() {
+            return UserImportResult.builder()
+                    .processed(processed)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
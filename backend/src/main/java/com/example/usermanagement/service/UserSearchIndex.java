@@ -0,0 +1,511 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserChangedEvent.ChangeType;
+import com.example.usermanagement.event.UserChangesFollowedEvent;
+import com.example.usermanagement.event.UsersChangedEvent;
+import com.example.usermanagement.event.UsersCreatedEvent;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search index over user names and emails.
+ * <p>
+ * Prefix matches are answered from a sorted dictionary of name and email terms, substring matches
+ * from a trigram index, and fuzzy matches by edit distance against the term dictionary. Text is
+ * compared without case or accents. The index is loaded once the application is ready and kept
+ * current from local user events and from the change feed, which carries writes made on other
+ * instances, so searches never reach the database.
+ * <p>
+ * Searches take no locks, and every candidate is checked against the user's current entry, so a
+ * search running during a write never returns a user that no longer matches. Users are read from
+ * the database without holding the write lock, which is only taken to apply the results. An entry
+ * is never replaced by an older version of the user, and a user removed while a read was in
+ * flight is not brought back by that read.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserSearchIndex {
+
+    static final int GRAM_LENGTH = 3;
+    static final int FUZZY_MIN_LENGTH = 4;
+    private static final int APPLY_SLICE = 1000;
+
+    static final int SCORE_EXACT = 100;
+    static final int SCORE_LEADING_PREFIX = 80;
+    static final int SCORE_TERM_PREFIX = 60;
+    static final int SCORE_SUBSTRING = 40;
+    static final int SCORE_FUZZY = 20;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TERM_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparing(hit -> hit.entry().name())
+            .thenComparing(hit -> hit.entry().user().getId());
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, Set<Long>> terms = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<Long>> grams = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    // Guarded by writeLock: database reads not yet applied, and users removed since the oldest began
+    private int readsInFlight;
+    private final Set<Long> removedDuringReads = new HashSet<>();
+
+    /**
+     * Searches users by name and email.
+     * <p>
+     * Users whose name or email equals the query rank first, then those where either starts with
+     * it, then those where every query word starts a word of the name or email, then those
+     * containing the query, and last those within a small edit distance of it. Ties are ordered
+     * by name.
+     *
+     * @param query the search text.
+     * @param limit the maximum number of users to return.
+     * @return the best matching users, best first.
+     */
+    public List<UserDto> search(String query, int limit) {
+        String text = normalize(query);
+        if (text.isEmpty()) {
+            return List.of();
+        }
+        List<String> queryTerms = terms(text);
+        Map<Long, Integer> scores = new HashMap<>();
+        matchPrefixes(text, queryTerms, scores);
+        // Each kind of match ranks below the previous one, so once the limit is reached the
+        // remaining kinds cannot place a user in the results.
+        if (scores.size() < limit && text.length() >= GRAM_LENGTH) {
+            matchSubstring(text, scores);
+        }
+        if (scores.size() < limit) {
+            matchFuzzy(queryTerms, scores);
+        }
+        return top(scores, limit);
+    }
+
+    /**
+     * Reloads the whole index from the database. Searches keep using the current entries, which
+     * are replaced a slice at a time; users that are no longer found are removed at the end.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Set<Long> indexed;
+        synchronized (writeLock) {
+            readsInFlight++;
+            indexed = new HashSet<>(entries.keySet());
+        }
+        try {
+            List<UserSummary> summaries = userRepository.findAllSummaries();
+            for (int from = 0; from < summaries.size(); from += APPLY_SLICE) {
+                synchronized (writeLock) {
+                    for (UserSummary summary : summaries.subList(from, Math.min(from + APPLY_SLICE, summaries.size()))) {
+                        putIfNewer(UserService.mapToDto(summary));
+                        indexed.remove(summary.getId());
+                    }
+                }
+            }
+            synchronized (writeLock) {
+                indexed.forEach(this::remove);
+            }
+            log.info("Indexed {} users for search", summaries.size());
+        } finally {
+            endRead();
+        }
+    }
+
+    /**
+     * Adds new users to the index once their creation has been committed.
+     *
+     * @param event the users created event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersCreated(UsersCreatedEvent event) {
+        refresh(event.userIds());
+    }
+
+    /**
+     * Re-indexes or removes a user once a change to them has been committed.
+     *
+     * @param event the user change event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            synchronized (writeLock) {
+                remove(event.userId());
+            }
+        } else {
+            refresh(List.of(event.userId()));
+        }
+    }
+
+    /**
+     * Re-indexes or removes users changed by a batch operation once it has been committed, reading
+     * the updated users back with one query.
+     *
+     * @param event the users changed event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        List<Long> updated = new ArrayList<>();
+        synchronized (writeLock) {
+            for (UserChangedEvent change : event.changes()) {
+                if (change.type() == ChangeType.DELETED) {
+                    remove(change.userId());
+                } else {
+                    updated.add(change.userId());
+                }
+            }
+        }
+        refresh(updated);
+    }
+
+    /**
+     * Applies the changes read from the change feed, which include those made on other instances.
+     * Changes already applied from local events are skipped by their version.
+     *
+     * @param event the followed changes.
+     */
+    @EventListener
+    public void onChangesFollowed(UserChangesFollowedEvent event) {
+        if (event.historyLost()) {
+            rebuild();
+            return;
+        }
+        synchronized (writeLock) {
+            for (UserChange change : event.changes()) {
+                if (change.getType() == UserChange.Type.DELETED) {
+                    remove(change.getUserId());
+                } else {
+                    putIfNewer(change.getUser());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the users back and applies them under the write lock. A failed read leaves the
+     * previous entries in place.
+     */
+    private void refresh(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            readsInFlight++;
+        }
+        try {
+            List<UserSummary> summaries = userRepository.findSummariesByIdIn(ids);
+            synchronized (writeLock) {
+                Set<Long> missing = new HashSet<>(ids);
+                for (UserSummary summary : summaries) {
+                    putIfNewer(UserService.mapToDto(summary));
+                    missing.remove(summary.getId());
+                }
+                missing.forEach(this::remove);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Could not refresh {} users in the search index", ids.size(), ex);
+        } finally {
+            endRead();
+        }
+    }
+
+    private void endRead() {
+        synchronized (writeLock) {
+            if (--readsInFlight == 0) {
+                removedDuringReads.clear();
+            }
+        }
+    }
+
+    /**
+     * Indexes a user read from the database or the change feed unless the index already holds a
+     * newer version, or the user was removed after the read began. Called under the write lock.
+     */
+    private void putIfNewer(UserDto user) {
+        if (removedDuringReads.contains(user.getId())) {
+            return;
+        }
+        Entry current = entries.get(user.getId());
+        if (current != null && current.user().getVersion() != null && user.getVersion() != null
+                && current.user().getVersion() > user.getVersion()) {
+            return;
+        }
+        put(user);
+    }
+
+    /**
+     * Indexes a user, replacing any previous entry. New postings are added before the entry is
+     * swapped and stale ones removed after, so the user stays findable throughout.
+     */
+    void put(UserDto user) {
+        Entry entry = Entry.of(user);
+        Long id = user.getId();
+        entry.terms().forEach(term -> terms.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(id));
+        entry.grams().forEach(gram -> grams.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id));
+        Entry previous = entries.put(id, entry);
+        if (previous != null) {
+            unlink(id, previous.terms(), entry.terms(), terms);
+            unlink(id, previous.grams(), entry.grams(), grams);
+        }
+    }
+
+    void remove(Long id) {
+        if (readsInFlight > 0) {
+            removedDuringReads.add(id);
+        }
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            unlink(id, previous.terms(), Set.of(), terms);
+            unlink(id, previous.grams(), Set.of(), grams);
+        }
+    }
+
+    private static void unlink(Long id, Set<String> stale, Set<String> kept, Map<String, Set<Long>> postings) {
+        for (String key : stale) {
+            if (!kept.contains(key)) {
+                postings.computeIfPresent(key, (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+
+    /**
+     * Walks the postings of the longest query term, usually the most selective, and checks the
+     * remaining terms against each candidate's entry.
+     */
+    private void matchPrefixes(String text, List<String> queryTerms, Map<Long, Integer> scores) {
+        if (queryTerms.isEmpty()) {
+            return;
+        }
+        String driver = queryTerms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        for (Set<Long> ids : withPrefix(driver).values()) {
+            for (Long id : ids) {
+                if (scores.containsKey(id)) {
+                    continue;
+                }
+                Entry entry = entries.get(id);
+                if (entry != null && entry.startsTermsWith(queryTerms)) {
+                    scores.put(id, entry.name().equals(text) || entry.email().equals(text) ? SCORE_EXACT
+                            : entry.name().startsWith(text) || entry.email().startsWith(text) ? SCORE_LEADING_PREFIX
+                            : SCORE_TERM_PREFIX);
+                }
+            }
+        }
+    }
+
+    private void matchSubstring(String text, Map<Long, Integer> scores) {
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String gram : grams(text)) {
+            Set<Long> ids = grams.get(gram);
+            if (ids == null) {
+                return;
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        for (Long id : postings.get(0)) {
+            Entry entry = entries.get(id);
+            if (entry != null && (entry.name().contains(text) || entry.email().contains(text))) {
+                scores.merge(id, SCORE_SUBSTRING, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Matches users where every query term either starts one of their terms or is within one edit
+     * (two for terms longer than five characters) of one. Terms shorter than
+     * {@value #FUZZY_MIN_LENGTH} characters must match as prefixes. As with Lucene's fuzzy prefix
+     * length, only dictionary terms sharing the first character are compared, which keeps the scan
+     * to a small slice of the dictionary. Scores drop with the total distance.
+     */
+    private void matchFuzzy(List<String> queryTerms, Map<Long, Integer> scores) {
+        Map<Long, Integer> distances = null;
+        for (String queryTerm : queryTerms) {
+            Map<Long, Integer> termDistances = new HashMap<>();
+            withPrefix(queryTerm).values().forEach(ids -> ids.forEach(id -> termDistances.put(id, 0)));
+            if (queryTerm.length() >= FUZZY_MIN_LENGTH) {
+                int maxEdits = queryTerm.length() <= 5 ? 1 : 2;
+                for (Map.Entry<String, Set<Long>> posting : withPrefix(queryTerm.substring(0, 1)).entrySet()) {
+                    int distance = distance(queryTerm, posting.getKey(), maxEdits);
+                    if (distance <= maxEdits) {
+                        posting.getValue().forEach(id -> termDistances.merge(id, distance, Math::min));
+                    }
+                }
+            }
+            if (distances == null) {
+                distances = termDistances;
+            } else {
+                distances.keySet().retainAll(termDistances.keySet());
+                distances.replaceAll((id, total) -> total + termDistances.get(id));
+            }
+            if (distances.isEmpty()) {
+                return;
+            }
+        }
+        if (distances != null) {
+            distances.forEach((id, total) -> {
+                if (total > 0 && entries.containsKey(id)) {
+                    scores.putIfAbsent(id, SCORE_FUZZY - total);
+                }
+            });
+        }
+    }
+
+    private Map<String, Set<Long>> withPrefix(String prefix) {
+        return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+    }
+
+    private List<UserDto> top(Map<Long, Integer> scores, int limit) {
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit, RANKING.reversed());
+        scores.forEach((id, score) -> {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                Hit hit = new Hit(entry, score);
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (RANKING.compare(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+        });
+        return best.stream()
+                .sorted(RANKING)
+                .map(hit -> hit.entry().user())
+                .toList();
+    }
+
+    /**
+     * Levenshtein distance between two terms, or {@code maxEdits + 1} as soon as it is known to
+     * exceed {@code maxEdits}.
+     */
+    static int distance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return maxEdits + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], maxEdits + 1);
+    }
+
+    /**
+     * Lower-cases text, strips accents and collapses whitespace. The Vietnamese đ has no
+     * decomposition and is mapped to d explicitly.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        String lower = stripped.toLowerCase(Locale.ROOT).replace('đ', 'd');
+        return WHITESPACE.matcher(lower).replaceAll(" ").strip();
+    }
+
+    private static List<String> terms(String normalized) {
+        return Arrays.stream(TERM_SEPARATORS.split(normalized))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            result.add(normalized.substring(i, i + GRAM_LENGTH));
+        }
+        return result;
+    }
+
+    /**
+     * One indexed user with the normalized name and email, and the terms and trigrams derived
+     * from them. The whole email is a term, so a query for an address matches it as a prefix.
+     */
+    private record Entry(UserDto user, String name, String email, Set<String> terms, Set<String> grams) {
+
+        static Entry of(UserDto user) {
+            String name = normalize(user.getName());
+            String email = normalize(user.getEmail());
+            Set<String> terms = new HashSet<>(UserSearchIndex.terms(name));
+            terms.addAll(UserSearchIndex.terms(email));
+            if (!email.isEmpty()) {
+                terms.add(email);
+            }
+            Set<String> grams = UserSearchIndex.grams(name);
+            grams.addAll(UserSearchIndex.grams(email));
+            return new Entry(user, name, email, Set.copyOf(terms), Set.copyOf(grams));
+        }
+
+        boolean startsTermsWith(List<String> prefixes) {
+            for (String prefix : prefixes) {
+                if (!startsTermWith(prefix)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean startsTermWith(String prefix) {
+            for (String term : terms) {
+                if (term.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Hit(Entry entry, int score) {
+    }
+}
@@ -1,18 +1,36 @@
 package com.example.usermanagement.service;
 
+import com.example.usermanagement.dto.AuditEvent;
+import com.example.usermanagement.dto.UserChange;
 import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.dto.UserFilter;
+import com.example.usermanagement.dto.UserPageResponse;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserChangedEvent.ChangeType;
+import com.example.usermanagement.event.UsersCreatedEvent;
 import com.example.usermanagement.exception.BusinessException;
+import com.example.usermanagement.exception.PreconditionFailedException;
 import com.example.usermanagement.model.Role;
 import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.UserChangeOutbox;
 import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserSummary;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -20,12 +38,23 @@ import java.util.stream.Collectors;
  * Service for managing user-related operations.
  */
 @Service
+@Timed("users.service")
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class UserService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int DEFAULT_SEARCH_LIMIT = 20;
+    static final int MAX_SEARCH_LIMIT = 100;
+    static final int MAX_SEARCH_QUERY_LENGTH = 100;
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserSearchIndex searchIndex;
+    private final UserChangeOutbox changeOutbox;
+    private final AuditLog auditLog;
 
     /**
      * Retrieves all users.
@@ -33,11 +62,69 @@ public class UserService {
      * @return a list of UserDto representing all users.
      */
     public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::mapToDto)
+        return userRepository.findAllSummaries().stream()
+                .map(UserService::mapToDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Retrieves one page of users in ID order using keyset pagination.
+     * <p>
+     * Runs one query for the page's IDs and one for the users with their roles, however deep the page.
+     * Users are read as projections, so no entities are loaded.
+     *
+     * @param cursor the opaque cursor returned with the previous page, or null for the first page.
+     * @param size   the requested page size, or null for the default; capped at {@value #MAX_PAGE_SIZE}.
+     * @param filter the filters to apply.
+     * @return the page of users and the cursor of the next page.
+     * @throws BusinessException if the cursor or page size is invalid.
+     */
+    public UserPageResponse getUserPage(String cursor, Integer size, UserFilter filter) {
+        int pageSize = resolvePageSize(size);
+        List<Long> ids = userRepository.findPageIds(
+                decodeCursor(cursor),
+                filter.getActive(),
+                filter.getRole(),
+                filter.getCreatedFrom(),
+                filter.getCreatedTo(),
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasNext = ids.size() > pageSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+        List<UserDto> items = pageIds.isEmpty() ? List.of()
+                : userRepository.findSummariesByIdIn(pageIds).stream()
+                        .map(UserService::mapToDto)
+                        .toList();
+
+        return UserPageResponse.builder()
+                .items(items)
+                .nextCursor(hasNext ? encodeCursor(pageIds.get(pageIds.size() - 1)) : null)
+                .build();
+    }
+
+    /**
+     * Searches users by name and email with prefix, substring and fuzzy matching.
+     * <p>
+     * Answered from the in-memory {@link UserSearchIndex}; the database is not queried.
+     *
+     * @param query the search text.
+     * @param limit the maximum number of results, or null for the default; capped at {@value #MAX_SEARCH_LIMIT}.
+     * @return the best matching users, best first.
+     * @throws BusinessException if the query is blank or too long, or the limit is invalid.
+     */
+    public List<UserDto> searchUsers(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new BusinessException("Search query is required");
+        }
+        if (query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new BusinessException("Search query is too long");
+        }
+        if (limit != null && limit < 1) {
+            throw new BusinessException("Search limit must be positive");
+        }
+        return searchIndex.search(query, limit == null ? DEFAULT_SEARCH_LIMIT : Math.min(limit, MAX_SEARCH_LIMIT));
+    }
+
     /**
      * Retrieves a user by their ID.
      *
@@ -47,12 +134,27 @@ public class UserService {
      */
     public UserDto getUserById(Long id) {
         return userRepository.findById(id)
-                .map(this::mapToDto)
+                .map(UserService::mapToDto)
                 .orElseThrow(() -> new BusinessException("User not found"));
     }
 
+    /**
+     * Returns the current version of the user list: the latest change feed position, read from one
+     * index entry. Every write to users or their roles appends to the feed, and positions are only
+     * assigned once the write has committed, so the version never moves ahead of the data. It
+     * follows a write within the relay interval.
+     *
+     * @return the list version.
+     */
+    public long getUserListVersion() {
+        return changeOutbox.findLatestPosition();
+    }
+
     /**
      * Creates a new user.
+     * <p>
+     * Publishes a {@link UsersCreatedEvent} so that the user can be added to the search index once
+     * the transaction commits, appends the change to the change feed outbox and audits it.
      *
      * @param request the UserDto containing user creation data.
      * @return the UserDto of the created user.
@@ -74,21 +176,38 @@ public class UserService {
                 .build();
 
         User savedUser = userRepository.save(user);
-        return mapToDto(savedUser);
+        UserDto created = mapToDto(savedUser);
+        changeOutbox.append(UserChange.Type.CREATED, created);
+        eventPublisher.publishEvent(new UsersCreatedEvent(List.of(savedUser.getId())));
+        auditLog.recordAfterCommit(AuditEvent.Action.USER_CREATED, savedUser.getId(), savedUser.getEmail(), null);
+        return created;
     }
 
     /**
      * Updates an existing user.
+     * <p>
+     * Publishes a {@link UserChangedEvent} so that cached authentication state for the user can be
+     * discarded once the transaction commits, appends the change to the change feed outbox and
+     * audits it with the names of the changed fields.
      *
-     * @param id      the ID of the user to update.
-     * @param request the UserDto containing update data.
-     * @return the UserDto of the updated user.
-     * @throws BusinessException if the user is not found.
+     * @param id              the ID of the user to update.
+     * @param request         the UserDto containing update data.
+     * @param expectedVersion the version the client last saw, or null to update unconditionally.
+     * @return the UserDto of the updated user, with its new version.
+     * @throws BusinessException           if the user is not found.
+     * @throws PreconditionFailedException if the user's version is not the expected one.
      */
     @Transactional
-    public UserDto updateUser(Long id, UserDto request) {
+    public UserDto updateUser(Long id, UserDto request, Long expectedVersion) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("User not found"));
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new PreconditionFailedException("User was modified by someone else");
+        }
+        String previousEmail = user.getEmail();
+        boolean credentialsChanged = isCredentialsChange(user, request);
+        boolean emailChanged = !Objects.equals(previousEmail, request.getEmail());
+        String changedFields = describeChanges(user, request);
 
         user.setName(request.getName());
         user.setEmail(request.getEmail());
@@ -101,26 +220,104 @@ public class UserService {
         if (request.getActive() != null) {
             user.setActive(request.getActive());
         }
+        if (credentialsChanged) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
 
-        User updatedUser = userRepository.save(user);
-        return mapToDto(updatedUser);
+        // Flushed here so that the returned DTO carries the incremented version
+        User updatedUser = userRepository.saveAndFlush(user);
+        UserDto updated = mapToDto(updatedUser);
+        changeOutbox.append(UserChange.Type.UPDATED, updated);
+        eventPublisher.publishEvent(new UserChangedEvent(id, previousEmail, ChangeType.UPDATED, credentialsChanged, emailChanged));
+        auditLog.recordAfterCommit(AuditEvent.Action.USER_UPDATED, id, previousEmail, changedFields);
+        return updated;
     }
 
     /**
      * Deletes a user by their ID.
+     * <p>
+     * Publishes a {@link UserChangedEvent} so that cached authentication state for the user can be
+     * discarded once the transaction commits, appends the change to the change feed outbox and
+     * audits it.
      *
      * @param id the ID of the user to delete.
      * @throws BusinessException if the user is not found.
      */
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new BusinessException("User not found");
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("User not found"));
+        changeOutbox.append(UserChange.Type.DELETED, mapToDto(user));
+        userRepository.delete(user);
+        eventPublisher.publishEvent(new UserChangedEvent(id, user.getEmail(), ChangeType.DELETED, true, false));
+        auditLog.recordAfterCommit(AuditEvent.Action.USER_DELETED, id, user.getEmail(), null);
+    }
+
+    private boolean isCredentialsChange(User user, UserDto request) {
+        return !Objects.equals(user.getEmail(), request.getEmail())
+                || (request.getPassword() != null && !request.getPassword().isEmpty())
+                || (request.getRoles() != null && !request.getRoles().equals(user.getRoles()))
+                || (request.getActive() != null && !request.getActive().equals(user.getActive()));
+    }
+
+    private static String describeChanges(User user, UserDto request) {
+        List<String> fields = new ArrayList<>();
+        if (!Objects.equals(user.getName(), request.getName())) {
+            fields.add("name");
+        }
+        if (!Objects.equals(user.getEmail(), request.getEmail())) {
+            fields.add("email");
+        }
+        if (request.getPassword() != null && !request.getPassword().isEmpty()) {
+            fields.add("password");
+        }
+        if (request.getRoles() != null && !request.getRoles().equals(user.getRoles())) {
+            fields.add("roles");
         }
-        userRepository.deleteById(id);
+        if (request.getActive() != null && !request.getActive().equals(user.getActive())) {
+            fields.add("active");
+        }
+        return fields.isEmpty() ? null : "Changed " + String.join(", ", fields);
     }
 
-    private UserDto mapToDto(User user) {
+    private static int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new BusinessException("Page size must be positive");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static String encodeCursor(long lastId) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(lastId).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        final byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("Invalid cursor");
+        }
+        if (bytes.length != Long.BYTES) {
+            throw new BusinessException("Invalid cursor");
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+
+    /**
+     * Maps a user entity to its DTO. The password is never copied.
+     *
+     * @param user the user entity.
+     * @return the user DTO.
+     */
+    public static UserDto mapToDto(User user) {
         return UserDto.builder()
                 .id(user.getId())
                 .name(user.getName())
@@ -128,6 +325,31 @@ public class UserService {
                 .roles(user.getRoles())
                 .createDate(user.getCreateDate())
                 .active(user.getActive())
+                .version(user.getVersion())
+                .build();
+    }
+
+    /**
+     * Maps a user projection to its DTO.
+     *
+     * @param summary the user projection.
+     * @return the user DTO.
+     */
+    public static UserDto mapToDto(UserSummary summary) {
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        if (summary.getRoles() != null) {
+            for (String role : summary.getRoles().split(",")) {
+                roles.add(Role.valueOf(role));
+            }
+        }
+        return UserDto.builder()
+                .id(summary.getId())
+                .name(summary.getName())
+                .email(summary.getEmail())
+                .roles(roles)
+                .createDate(summary.getCreateDate())
+                .active(summary.getActive())
+                .version(summary.getVersion())
                 .build();
     }
 }
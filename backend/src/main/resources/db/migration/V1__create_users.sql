@@ -0,0 +1,27 @@
+-- Baseline schema (formerly database/schema.sql).
+-- Databases created before migrations were introduced are baselined at this version and skip it.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    create_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    active BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id BIGINT NOT NULL,
+    role VARCHAR(50) NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Admin user (password: admin123), BCrypt hash
+INSERT INTO users (name, email, password, create_date, active)
+VALUES ('Admin', 'admin@example.com', '$2a$10$kUkrVk/1n/ELNOA2GAK2SupfncJSxulJKjovV9rlTV.oN7vKPvEAi', CURRENT_TIMESTAMP, true)
+ON CONFLICT (email) DO NOTHING;
+
+INSERT INTO user_roles (user_id, role)
+SELECT u.id, 'ADMIN' FROM users u
+WHERE u.email = 'admin@example.com'
+  AND NOT EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.id AND r.role = 'ADMIN');
@@ -0,0 +1,46 @@
+-- Keys and indexes for role lookups, filtered listing and case-insensitive login.
+
+-- Drop duplicate role rows so the primary key can be added
+DELETE FROM user_roles a
+USING user_roles b
+WHERE a.ctid < b.ctid
+  AND a.user_id = b.user_id
+  AND a.role = b.role;
+
+-- Tables created by Hibernate's ddl-auto already have this key
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_constraint
+        WHERE conrelid = 'user_roles'::regclass AND contype = 'p'
+    ) THEN
+        ALTER TABLE user_roles ADD CONSTRAINT user_roles_pkey PRIMARY KEY (user_id, role);
+    END IF;
+END $$;
+
+-- The primary key serves the per-user roles fetch; this one serves the role filter
+CREATE INDEX IF NOT EXISTS idx_user_roles_role ON user_roles (role, user_id);
+
+-- Keyset pages restricted to active users
+CREATE INDEX IF NOT EXISTS idx_users_active_id ON users (id) WHERE active;
+
+-- Listing by creation date
+CREATE INDEX IF NOT EXISTS idx_users_create_date ON users (create_date, id);
+
+-- Emails are matched ignoring case, so they must also be unique ignoring case. Accounts whose
+-- emails differ only in case have to be merged or renamed by hand before this can run.
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM users
+        GROUP BY lower(email)
+        HAVING count(*) > 1
+    ) THEN
+        RAISE EXCEPTION 'Emails that differ only in case must be resolved before migrating'
+            USING HINT = 'List them with: SELECT lower(email), array_agg(id ORDER BY id) '
+                || 'FROM users GROUP BY lower(email) HAVING count(*) > 1';
+    END IF;
+END $$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_email_lower ON users (lower(email));
+
@@ -0,0 +1,3 @@
+-- Version behind each user's ETag, used for optimistic locking.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
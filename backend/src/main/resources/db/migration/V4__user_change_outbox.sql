@@ -0,0 +1,25 @@
+-- Transactional outbox behind the user change feed. Rows are written in the same transaction as
+-- the user change; the relay gives them a feed position when it publishes them.
+
+CREATE SEQUENCE IF NOT EXISTS user_change_position_seq;
+
+CREATE TABLE IF NOT EXISTS user_change_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    position BIGINT UNIQUE,
+    published_at TIMESTAMP
+);
+
+-- The relay only ever looks for unpublished rows, which are few
+CREATE INDEX IF NOT EXISTS idx_user_change_outbox_unpublished ON user_change_outbox (id) WHERE position IS NULL;
+
+-- Highest position removed by retention; consumers resuming from before it have missed changes
+CREATE TABLE IF NOT EXISTS user_change_retention (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    pruned_through BIGINT NOT NULL
+);
+
+INSERT INTO user_change_retention (id, pruned_through) VALUES (1, 0) ON CONFLICT DO NOTHING;
@@ -0,0 +1,4 @@
+-- Version carried by each user's self-contained access tokens. Every change to a user's credentials
+-- bumps it, which revokes the tokens issued before on every instance.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
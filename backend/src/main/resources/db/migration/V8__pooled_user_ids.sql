@@ -0,0 +1,9 @@
+-- Each value of the users.id sequence now stands for the 50 IDs ending with it (see
+-- User.ID_ALLOCATION_SIZE), so that inserts only go to the sequence once per 50 users.
+-- The sequence is first moved past every ID in use, so that no block overlaps an existing user
+-- or starts below 1.
+
+SELECT setval('users_id_seq',
+              GREATEST((SELECT last_value FROM users_id_seq), (SELECT COALESCE(max(id), 0) FROM users)) + 50);
+
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
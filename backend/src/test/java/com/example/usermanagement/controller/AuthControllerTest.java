@@ -2,7 +2,10 @@ package com.example.usermanagement.controller;
 
 import com.example.usermanagement.dto.AuthRequest;
 import com.example.usermanagement.dto.AuthResponse;
+import com.example.usermanagement.dto.RefreshRequest;
 import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.exception.RateLimitExceededException;
+import com.example.usermanagement.exception.ServiceOverloadedException;
 import com.example.usermanagement.security.JwtAuthenticationFilter;
 import com.example.usermanagement.service.AuthService;
 import com.example.usermanagement.service.CustomUserDetailsService;
@@ -13,12 +16,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -75,7 +85,7 @@ public class AuthControllerTest {
     void login_Success() throws Exception {
         AuthRequest authRequest = new AuthRequest("test@example.com", "password");
 
-        when(authService.login(any(AuthRequest.class))).thenReturn(authResponse);
+        when(authService.login(any(AuthRequest.class), any())).thenReturn(authResponse);
 
         mockMvc.perform(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -84,4 +94,68 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.token").value("jwtToken"))
                 .andExpect(jsonPath("$.email").value("test@example.com"));
     }
+
+    @Test
+    void login_HashingPoolSaturated() throws Exception {
+        AuthRequest authRequest = new AuthRequest("test@example.com", "password");
+
+        when(authService.login(any(AuthRequest.class), any()))
+                .thenThrow(new ServiceOverloadedException("Server is busy, please retry later", Duration.ofSeconds(2)));
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(authRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+    }
+
+    @Test
+    void login_Throttled() throws Exception {
+        AuthRequest authRequest = new AuthRequest("test@example.com", "password");
+
+        when(authService.login(any(AuthRequest.class), eq("127.0.0.1")))
+                .thenThrow(new RateLimitExceededException("Too many login attempts, please retry later",
+                        Duration.ofMillis(1500)));
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(authRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+    }
+
+    @Test
+    void refresh_Success() throws Exception {
+        authResponse.setRefreshToken("nextRefreshToken");
+        when(authService.refresh("refreshToken")).thenReturn(authResponse);
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshRequest("refreshToken"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("jwtToken"))
+                .andExpect(jsonPath("$.refreshToken").value("nextRefreshToken"));
+    }
+
+    @Test
+    void refresh_InvalidToken() throws Exception {
+        when(authService.refresh("reused")).thenThrow(new BadCredentialsException("Invalid refresh token"));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshRequest("reused"))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Invalid refresh token"));
+    }
+
+    @Test
+    void logout_RevokesBothTokens() throws Exception {
+        mockMvc.perform(post("/api/auth/logout")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer jwtToken")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshRequest("refreshToken"))))
+                .andExpect(status().isNoContent());
+
+        verify(authService).logout("refreshToken", "jwtToken");
+    }
 }
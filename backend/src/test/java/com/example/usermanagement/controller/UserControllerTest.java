@@ -1,31 +1,62 @@
 package com.example.usermanagement.controller;
 
+import com.example.usermanagement.config.BinaryMessageConvertersConfig;
+import com.example.usermanagement.dto.UserBatchItemResult;
+import com.example.usermanagement.dto.UserBatchPatchRequest;
+import com.example.usermanagement.dto.UserBatchResult;
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.dto.UserChangesResponse;
 import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.dto.UserFileFormat;
+import com.example.usermanagement.dto.UserFilter;
+import com.example.usermanagement.dto.UserImportResult;
+import com.example.usermanagement.dto.UserPageResponse;
+import com.example.usermanagement.exception.PreconditionFailedException;
+import com.example.usermanagement.model.Role;
 import com.example.usermanagement.security.JwtAuthenticationFilter;
 import com.example.usermanagement.service.CustomUserDetailsService;
+import com.example.usermanagement.service.UserBatchService;
+import com.example.usermanagement.service.UserChangeFeed;
+import com.example.usermanagement.service.UserExportService;
+import com.example.usermanagement.service.UserImportService;
 import com.example.usermanagement.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = UserController.class)
 @AutoConfigureMockMvc(addFilters = false) // Disable security filters
+@Import(BinaryMessageConvertersConfig.class)
 public class UserControllerTest {
 
     @Autowired
@@ -34,6 +65,18 @@ public class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserExportService userExportService;
+
+    @MockBean
+    private UserImportService userImportService;
+
+    @MockBean
+    private UserChangeFeed userChangeFeed;
+
+    @MockBean
+    private UserBatchService userBatchService;
+
     @MockBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -52,6 +95,7 @@ public class UserControllerTest {
                 .name("Test User 01")
                 .email("test@example.com")
                 .active(true)
+                .version(4L)
                 .build();
     }
 
@@ -60,19 +104,142 @@ public class UserControllerTest {
         when(userService.getAllUsers()).thenReturn(List.of(userDto));
 
         mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andExpect(jsonPath("$[0].email").value("test@example.com"))
+                .andExpect(jsonPath("$[0].password").doesNotExist());
+    }
+
+    @Test
+    void getAllUsers_InCbor() throws Exception {
+        when(userService.getAllUsers()).thenReturn(List.of(userDto));
+
+        MvcResult result = mockMvc.perform(get("/api/users").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        JsonNode users = new CBORMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("test@example.com", users.get(0).get("email").asText());
+        assertFalse(users.get(0).has("password"));
+    }
+
+    @Test
+    void getAllUsers_NotModifiedWhenListUnchanged() throws Exception {
+        when(userService.getUserListVersion()).thenReturn(7L);
+
+        mockMvc.perform(get("/api/users").header(HttpHeaders.IF_NONE_MATCH, "W/\"list-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"list-7\""));
+
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    void searchUsers_Success() throws Exception {
+        when(userService.searchUsers("test", 5)).thenReturn(List.of(userDto));
+
+        mockMvc.perform(get("/api/users/search").param("q", "test").param("limit", "5"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].email").value("test@example.com"));
     }
 
+    @Test
+    void getUserPage_Success() throws Exception {
+        UserPageResponse page = UserPageResponse.builder()
+                .items(List.of(userDto))
+                .nextCursor("AAAAAAAAAAE")
+                .build();
+        UserFilter expectedFilter = UserFilter.builder().active(true).role(Role.USER).build();
+        when(userService.getUserPage(eq("cursor"), eq(20), eq(expectedFilter))).thenReturn(page);
+
+        mockMvc.perform(get("/api/users/page")
+                .param("cursor", "cursor")
+                .param("size", "20")
+                .param("active", "true")
+                .param("role", "USER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].email").value("test@example.com"))
+                .andExpect(jsonPath("$.nextCursor").value("AAAAAAAAAAE"));
+    }
+
+    @Test
+    void getUserChanges_ReturnsChangesAfterPosition() throws Exception {
+        UserChange change = UserChange.builder()
+                .eventId(11L)
+                .position(42L)
+                .type(UserChange.Type.UPDATED)
+                .userId(1L)
+                .user(userDto)
+                .build();
+        DeferredResult<UserChangesResponse> changes = new DeferredResult<>();
+        changes.setResult(UserChangesResponse.builder().changes(List.of(change)).next(42L).build());
+        when(userChangeFeed.poll(41L, null, 10L)).thenReturn(changes);
+
+        MvcResult result = mockMvc.perform(get("/api/users/changes").param("since", "41").param("wait", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next").value(42))
+                .andExpect(jsonPath("$.changes[0].type").value("UPDATED"))
+                .andExpect(jsonPath("$.changes[0].user.email").value("test@example.com"));
+    }
+
+    @Test
+    void exportUsers_StreamsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userExportService).exportUsers(eq(UserFileFormat.NDJSON), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void importUsers_Csv() throws Exception {
+        UserImportResult result = UserImportResult.builder()
+                .processed(1)
+                .imported(1)
+                .errors(List.of())
+                .build();
+        when(userImportService.importUsers(eq(UserFileFormat.CSV), any(InputStream.class))).thenReturn(result);
+
+        mockMvc.perform(post("/api/users/import")
+                .contentType("text/csv;charset=UTF-8")
+                .content("name,email,password\nJane,jane@example.com,secret\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+    }
+
     @Test
     void getUserById_Success() throws Exception {
         when(userService.getUserById(1L)).thenReturn(userDto);
 
         mockMvc.perform(get("/api/users/{id}", 1L))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
                 .andExpect(jsonPath("$.email").value("test@example.com"));
     }
 
+    @Test
+    void getUserById_NotModifiedWhenVersionUnchanged() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(userDto);
+
+        mockMvc.perform(get("/api/users/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "W/\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
     @Test
     void createUser_Success() throws Exception {
         when(userService.createUser(any(UserDto.class))).thenReturn(userDto);
@@ -86,15 +253,48 @@ public class UserControllerTest {
 
     @Test
     void updateUser_Success() throws Exception {
-        when(userService.updateUser(eq(1L), any(UserDto.class))).thenReturn(userDto);
+        when(userService.updateUser(eq(1L), any(UserDto.class), eq(3L))).thenReturn(userDto);
 
         mockMvc.perform(put("/api/users/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(userDto)))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
                 .andExpect(jsonPath("$.name").value("Test User 01"));
     }
 
+    @Test
+    void updateUser_StaleVersion() throws Exception {
+        when(userService.updateUser(eq(1L), any(UserDto.class), eq(3L)))
+                .thenThrow(new PreconditionFailedException("User was modified by someone else"));
+
+        mockMvc.perform(put("/api/users/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void patchUsers_ReturnsReport() throws Exception {
+        UserBatchResult report = UserBatchResult.builder()
+                .changed(1)
+                .notFound(1)
+                .results(List.of(
+                        UserBatchItemResult.builder().id(1L).status(UserBatchItemResult.Status.UPDATED).build(),
+                        UserBatchItemResult.builder().id(9L).status(UserBatchItemResult.Status.NOT_FOUND).build()))
+                .build();
+        when(userBatchService.patchUsers(any(UserBatchPatchRequest.class))).thenReturn(report);
+
+        mockMvc.perform(patch("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[1,9],\"active\":false}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("NOT_FOUND"));
+    }
+
     @Test
     void deleteUser_Success() throws Exception {
         doNothing().when(userService).deleteUser(1L);
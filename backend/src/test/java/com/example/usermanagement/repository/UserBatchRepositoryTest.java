@@ -0,0 +1,49 @@
+package com.example.usermanagement.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserBatchRepositoryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private UserEmailFilter emailFilter;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    private UserBatchRepository userBatchRepository;
+
+    @BeforeEach
+    void setUp() {
+        userBatchRepository = new UserBatchRepository(jdbcTemplate, emailFilter, entityManagerFactory);
+    }
+
+    @Test
+    void reserveIds_DrawsOneSequenceValuePerBlock() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(3))).thenReturn(List.of(150L, 250L, 300L));
+
+        List<Long> ids = userBatchRepository.reserveIds(120);
+
+        List<Long> expected = LongStream.concat(LongStream.rangeClosed(101, 150),
+                LongStream.concat(LongStream.rangeClosed(201, 250), LongStream.rangeClosed(251, 270)))
+                .boxed().toList();
+        assertEquals(expected, ids);
+    }
+}
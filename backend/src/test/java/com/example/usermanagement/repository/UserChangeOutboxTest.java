@@ -0,0 +1,102 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.dto.UserChange;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserChangeOutboxTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private UserChangeOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        outbox = new UserChangeOutbox(jdbcTemplate, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void findUnpublished_LeavesPositionUnset() throws Exception {
+        ResultSet row = row(7L, null);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(10)))
+                .thenAnswer(invocation -> List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(row, 0)));
+
+        UserChange change = outbox.findUnpublished(10).get(0);
+
+        assertEquals(7L, change.getEventId());
+        assertNull(change.getPosition());
+        assertEquals(UserChange.Type.UPDATED, change.getType());
+        assertEquals("a@example.com", change.getUser().getEmail());
+    }
+
+    @Test
+    void findPublishedAfter_ReadsPosition() throws Exception {
+        ResultSet row = row(7L, 42L);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(0L), eq(10)))
+                .thenAnswer(invocation -> List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(row, 0)));
+
+        UserChange change = outbox.findPublishedAfter(0, 10).get(0);
+
+        assertEquals(7L, change.getEventId());
+        assertEquals(42L, change.getPosition());
+        assertEquals(CREATED, change.getOccurredAt());
+    }
+
+    /**
+     * Builds a one-row result set that, like a JDBC driver, reports SQL NULL through
+     * {@link ResultSet#wasNull()} for the column read last.
+     */
+    private static ResultSet row(long id, Long position) throws Exception {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", id);
+        columns.put("position", position);
+        columns.put("user_id", 1L);
+        columns.put("change_type", "UPDATED");
+        columns.put("payload", "{\"id\":1,\"email\":\"a@example.com\"}");
+        columns.put("created_at", Timestamp.valueOf(CREATED));
+        boolean[] lastNull = new boolean[1];
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(anyString())).thenAnswer(invocation -> {
+            Object value = columns.get(invocation.<String>getArgument(0));
+            lastNull[0] = value == null;
+            return value == null ? 0L : (Long) value;
+        });
+        lenient().when(rs.getObject(anyString(), eq(Long.class))).thenAnswer(invocation -> {
+            Object value = columns.get(invocation.<String>getArgument(0));
+            lastNull[0] = value == null;
+            return value;
+        });
+        when(rs.getString(anyString())).thenAnswer(invocation -> {
+            Object value = columns.get(invocation.<String>getArgument(0));
+            lastNull[0] = value == null;
+            return value;
+        });
+        when(rs.getTimestamp(anyString())).thenAnswer(invocation -> columns.get(invocation.<String>getArgument(0)));
+        lenient().when(rs.wasNull()).thenAnswer(invocation -> lastNull[0]);
+        return rs;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserChangedEvent.ChangeType;
+import com.example.usermanagement.event.UserChangesFollowedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserEmailFilterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserEmailFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new UserEmailFilter(jdbcTemplate, true, 0.01, 2.0, meterRegistry);
+    }
+
+    @Test
+    void mightContain_PassesEverythingUntilBuilt() {
+        assertTrue(filter.mightContain("missing@example.com"));
+        assertTrue(Double.isNaN(meterRegistry.get("users.email.filter.fpp").gauge().value()));
+    }
+
+    @Test
+    void rebuild_LoadsExistingEmails() throws Exception {
+        givenUsers("admin@example.com", "Test@Example.com");
+
+        filter.rebuild();
+
+        assertTrue(filter.mightContain("admin@example.com"));
+        assertTrue(filter.mightContain("test@example.COM"));
+        assertFalse(filter.mightContain("missing@example.com"));
+        assertEquals(1, meterRegistry.get("users.email.filter.lookups").tag("result", "negative").counter().count());
+        assertEquals(2, meterRegistry.get("users.email.filter.lookups").tag("result", "positive").counter().count());
+        assertTrue(meterRegistry.get("users.email.filter.fpp").gauge().value() < 0.01);
+    }
+
+    @Test
+    void add_MakesEmailVisibleAfterBuild() throws Exception {
+        givenUsers("admin@example.com");
+        filter.rebuild();
+
+        filter.add("New@example.com");
+
+        assertTrue(filter.mightContain("new@example.com"));
+    }
+
+    @Test
+    void onChangesFollowed_AddsEmailsWrittenOnOtherInstances() throws Exception {
+        givenUsers("admin@example.com");
+        filter.rebuild();
+        assertFalse(filter.mightContain("remote@example.com"));
+
+        filter.onChangesFollowed(new UserChangesFollowedEvent(List.of(UserChange.builder()
+                .type(UserChange.Type.CREATED)
+                .userId(2L)
+                .user(UserDto.builder().id(2L).email("Remote@example.com").build())
+                .build()), false));
+
+        assertTrue(filter.mightContain("remote@example.com"));
+    }
+
+    @Test
+    void rebuild_TriggeredOnceHeadroomIsUsed() throws Exception {
+        givenUsers();
+        filter.rebuild();
+
+        for (long i = 0; i <= UserEmailFilter.MIN_CAPACITY; i++) {
+            filter.onUserChanged(new UserChangedEvent(i, "user" + i + "@example.com", ChangeType.DELETED, true, false));
+        }
+
+        verify(jdbcTemplate, timeout(5_000).times(2)).queryForObject(anyString(), eq(Long.class));
+    }
+
+    @Test
+    void rebuild_TriggeredByEmailChangesButNotOtherCredentialChanges() throws Exception {
+        givenUsers();
+        filter.rebuild();
+
+        for (long i = 0; i <= UserEmailFilter.MIN_CAPACITY; i++) {
+            filter.onUserChanged(new UserChangedEvent(i, "user" + i + "@example.com", ChangeType.UPDATED, true, false));
+        }
+        verify(jdbcTemplate, after(200).times(1)).queryForObject(anyString(), eq(Long.class));
+
+        for (long i = 0; i <= UserEmailFilter.MIN_CAPACITY; i++) {
+            filter.onUserChanged(new UserChangedEvent(i, "user" + i + "@example.com", ChangeType.UPDATED, true, true));
+        }
+        verify(jdbcTemplate, timeout(5_000).times(2)).queryForObject(anyString(), eq(Long.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenUsers(String... emails) throws Exception {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn((long) emails.length);
+        ResultSet rs = mock(ResultSet.class);
+        lenient().when(rs.getString(2)).thenReturn(emails.length > 0 ? emails[0] : null,
+                emails.length > 1 ? Arrays.copyOfRange(emails, 1, emails.length) : new String[0]);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(0L), any())).thenAnswer(invocation -> {
+            RowMapper<Long> mapper = invocation.getArgument(1);
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < emails.length; i++) {
+                ids.add(mapper.mapRow(rs, i));
+            }
+            return ids;
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SimpleNaturalIdLoadAccess;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserNaturalIdRepositoryImplTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private SimpleNaturalIdLoadAccess<User> naturalIdAccess;
+
+    @Mock
+    private UserEmailFilter emailFilter;
+
+    private UserNaturalIdRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new UserNaturalIdRepositoryImpl(entityManager, emailFilter);
+    }
+
+    @Test
+    void findByEmail_FindsUserTheFilterHasNotSeen() {
+        // Inserted on another instance, before the change reached this one's filter
+        User user = User.builder().id(1L).email("remote@example.com").build();
+        lenient().when(emailFilter.mightContain("remote@example.com")).thenReturn(false);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.bySimpleNaturalId(User.class)).thenReturn(naturalIdAccess);
+        when(naturalIdAccess.loadOptional("remote@example.com")).thenReturn(Optional.of(user));
+
+        assertEquals(Optional.of(user), repository.findByEmail("remote@example.com"));
+        assertTrue(repository.existsByEmail("remote@example.com"));
+    }
+
+    @Test
+    void findKnownByEmail_SkipsQueryForEmailsTheFilterHasNotSeen() {
+        when(emailFilter.mightContain("missing@example.com")).thenReturn(false);
+
+        assertTrue(repository.findKnownByEmail("missing@example.com").isEmpty());
+        verifyNoInteractions(entityManager);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserTokenVersion;
+import com.example.usermanagement.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtAuthenticationFilterTest {
+
+    @TempDir
+    Path keyDir;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private JwtKeyStore keyStore;
+    private JwtUtils jwtUtils;
+    private TokenVersionRegistry tokenVersions;
+    private TokenDenyList tokenDenyList;
+    private JwtAuthenticationFilter filter;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        keyStore = new JwtKeyStore(keyDir, 2048, Duration.ofDays(7), Duration.ofHours(1), Duration.ofMinutes(5),
+                Clock.systemUTC(), new SimpleMeterRegistry());
+        keyStore.start();
+        jwtUtils = new JwtUtils(keyStore, 60_000, true);
+        tokenVersions = new TokenVersionRegistry(userRepository, 100, 60_000, new SimpleMeterRegistry());
+        tokenDenyList = new TokenDenyList(new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwtUtils, userDetailsService,
+                new VerifiedTokenCache(100, 60_000, new SimpleMeterRegistry()), tokenVersions, tokenDenyList);
+        userDetails = new User("test@example.com", "encodedPassword",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void selfContainedToken_AuthenticatesWithoutLookup() throws Exception {
+        String token = jwtUtils.generateSelfContainedToken(userDetails, 0);
+        when(userRepository.findTokenVersionByEmail("test@example.com"))
+                .thenReturn(Optional.of(new UserTokenVersion(1L, 0)));
+
+        filter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("test@example.com", authentication.getName());
+        assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void selfContainedToken_RevokedVersionIsRejected() throws Exception {
+        String token = jwtUtils.generateSelfContainedToken(userDetails, 0);
+        when(userRepository.findTokenVersionByEmail("test@example.com"))
+                .thenReturn(Optional.of(new UserTokenVersion(1L, 1)));
+
+        filter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void plainToken_LoadsUserOnceThenUsesCache() throws Exception {
+        String token = jwtUtils.generateToken(userDetails);
+        when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(userDetails);
+
+        filter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        filter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, times(1)).loadUserByUsername("test@example.com");
+    }
+
+    @Test
+    void selfContainedToken_DeniedTokenIsRejected() throws Exception {
+        IssuedToken token = jwtUtils.issueAccessToken(userDetails, 0);
+        tokenDenyList.deny(token.id(), token.expiresAt());
+
+        filter.doFilter(bearer(token.value()), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void plainToken_DeniedAfterCachingIsRejected() throws Exception {
+        JwtUtils plainIssuer = new JwtUtils(keyStore, 60_000, false);
+        IssuedToken token = plainIssuer.issueAccessToken(userDetails, 0);
+        when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(userDetails);
+
+        filter.doFilter(bearer(token.value()), new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        tokenDenyList.deny(token.id(), token.expiresAt());
+        filter.doFilter(bearer(token.value()), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private static MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
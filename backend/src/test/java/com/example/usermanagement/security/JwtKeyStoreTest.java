@@ -0,0 +1,171 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.dto.JsonWebKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtKeyStoreTest {
+
+    @TempDir
+    Path keyDir;
+
+    private MutableClock clock;
+    private JwtKeyStore keyStore;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        keyStore = newKeyStore();
+        keyStore.start();
+    }
+
+    @Test
+    void start_ReloadsPersistedKey() throws Exception {
+        JwtKeyStore restarted = newKeyStore();
+        restarted.start();
+
+        assertEquals(keyStore.signingKey().kid(), restarted.signingKey().kid());
+        try (var files = Files.list(keyDir)) {
+            assertEquals(List.of(keyDir.resolve(keyStore.signingKey().kid() + ".pem")), files.toList());
+        }
+    }
+
+    @Test
+    void rotate_NewKeySignsAfterActivationDelay() {
+        String first = keyStore.signingKey().kid();
+        String firstETag = keyStore.keySetETag();
+
+        clock.advance(10_000);
+        keyStore.rotate();
+
+        assertEquals(first, keyStore.signingKey().kid());
+        assertEquals(2, keyStore.keySet().getKeys().size());
+        assertNotEquals(firstETag, keyStore.keySetETag());
+
+        clock.advance(1_000);
+
+        String second = keyStore.signingKey().kid();
+        assertNotEquals(first, second);
+        assertEquals(second, keyStore.keySet().getKeys().get(0).getKid());
+        assertTrue(keyStore.verificationKey(first).isPresent());
+    }
+
+    @Test
+    void rotate_RetiresKeyAfterOverlap() {
+        String first = keyStore.signingKey().kid();
+        clock.advance(10_000);
+        keyStore.rotate();
+
+        clock.advance(3_000);
+        keyStore.rotate();
+
+        assertTrue(keyStore.verificationKey(first).isEmpty());
+        assertEquals(1, keyStore.keySet().getKeys().size());
+        assertFalse(Files.exists(keyDir.resolve(first + ".pem")));
+    }
+
+    @Test
+    void rotate_PicksUpKeysOfOtherInstances() {
+        JwtKeyStore other = newKeyStore();
+        other.start();
+        clock.advance(10_000);
+        other.rotate();
+        clock.advance(1_000);
+
+        keyStore.rotate();
+
+        String second = other.signingKey().kid();
+        assertEquals(second, keyStore.signingKey().kid());
+        assertTrue(keyStore.verificationKey(second).isPresent());
+    }
+
+    @Test
+    void start_FailsWithoutUsableDirectory() throws Exception {
+        Path file = Files.writeString(keyDir.resolve("not-a-directory"), "");
+        JwtKeyStore unusable = new JwtKeyStore(file, 2048, Duration.ofSeconds(10), Duration.ofSeconds(3),
+                Duration.ofSeconds(1), clock, new SimpleMeterRegistry());
+
+        assertThrows(IllegalStateException.class, unusable::start);
+    }
+
+    @Test
+    void rotate_KeepsCurrentKeysWhenDirectoryBecomesUnusable() throws Exception {
+        String kid = keyStore.signingKey().kid();
+        Files.delete(keyDir.resolve(kid + ".pem"));
+        Files.delete(keyDir);
+        Files.writeString(keyDir, "");
+
+        clock.advance(10_000);
+        keyStore.rotate();
+
+        assertEquals(kid, keyStore.signingKey().kid());
+        assertTrue(keyStore.verificationKey(kid).isPresent());
+    }
+
+    @Test
+    void keySet_PublishesPublicKeys() throws Exception {
+        JsonWebKey key = keyStore.keySet().getKeys().get(0);
+        RSAPublicKey publicKey = keyStore.verificationKey(key.getKid()).orElseThrow();
+
+        assertEquals("RSA", key.getKty());
+        assertEquals("RS256", key.getAlg());
+        assertEquals("sig", key.getUse());
+        assertEquals(JwtKeyStore.thumbprint(publicKey), key.getKid());
+        assertEquals(publicKey.getModulus(), new BigInteger(1, Base64.getUrlDecoder().decode(key.getN())));
+        assertEquals(publicKey.getPublicExponent(), new BigInteger(1, Base64.getUrlDecoder().decode(key.getE())));
+    }
+
+    @Test
+    void constructor_RejectsOverlapShorterThanTokenLifetime() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        assertThrows(IllegalStateException.class, () -> new JwtKeyStore(keyDir.toString(), 2048, 604_800_000,
+                900_000, 300_000, 900_000, meterRegistry));
+    }
+
+    private JwtKeyStore newKeyStore() {
+        // Rotates every 10 s; a new key signs after 1 s and the previous one verifies for 3 s
+        return new JwtKeyStore(keyDir, 2048, Duration.ofSeconds(10), Duration.ofSeconds(3), Duration.ofSeconds(1),
+                clock, new SimpleMeterRegistry());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(long millis) {
+            now = now.plusMillis(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.usermanagement.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilsTest {
+
+    @TempDir
+    Path keyDir;
+
+    private JwtKeyStore keyStore;
+    private JwtUtils jwtUtils;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        keyStore = new JwtKeyStore(keyDir, 2048, Duration.ofDays(7), Duration.ofHours(1), Duration.ofMinutes(5),
+                Clock.systemUTC(), new SimpleMeterRegistry());
+        keyStore.start();
+        jwtUtils = new JwtUtils(keyStore, 60_000, false);
+        userDetails = new User("test@example.com", "encodedPassword", List.of());
+    }
+
+    @Test
+    void verify_ValidToken() {
+        String token = jwtUtils.generateToken(userDetails);
+
+        VerifiedToken verified = jwtUtils.verify(token).orElseThrow();
+
+        assertEquals("test@example.com", verified.subject());
+        assertTrue(verified.roles().isEmpty());
+        assertNotNull(verified.expiresAt());
+        assertNotNull(verified.id());
+    }
+
+    @Test
+    void issueAccessToken_UniqueIdMatchesClaims() {
+        IssuedToken first = jwtUtils.issueAccessToken(userDetails, 0);
+        IssuedToken second = jwtUtils.issueAccessToken(userDetails, 0);
+
+        VerifiedToken verified = jwtUtils.verify(first.value()).orElseThrow();
+
+        assertEquals(first.id(), verified.id());
+        assertEquals(first.expiresAt().getEpochSecond(), verified.expiresAt().getEpochSecond());
+        assertNotEquals(first.id(), second.id());
+        assertFalse(verified.isSelfContained());
+    }
+
+    @Test
+    void issueAccessToken_SelfContainedMode() {
+        JwtUtils selfContainedIssuer = new JwtUtils(keyStore, 60_000, true);
+        UserDetails admin = new User("admin@example.com", "encodedPassword",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+        VerifiedToken verified = jwtUtils.verify(selfContainedIssuer.issueAccessToken(admin, 4).value()).orElseThrow();
+
+        assertTrue(verified.isSelfContained());
+        assertEquals(4, verified.version());
+    }
+
+    @Test
+    void verify_SelfContainedToken() {
+        UserDetails admin = new User("admin@example.com", "encodedPassword",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        String token = jwtUtils.generateSelfContainedToken(admin, 3);
+
+        VerifiedToken verified = jwtUtils.verify(token).orElseThrow();
+
+        assertTrue(verified.isSelfContained());
+        assertEquals(List.of("ROLE_ADMIN"), verified.roles());
+        assertEquals(3, verified.version());
+    }
+
+    @Test
+    void verify_PlainTokenIsNotSelfContained() {
+        String token = jwtUtils.generateToken(userDetails);
+
+        VerifiedToken verified = jwtUtils.verify(token).orElseThrow();
+
+        assertFalse(verified.isSelfContained());
+        assertEquals(VerifiedToken.NO_VERSION, verified.version());
+    }
+
+    @Test
+    void verify_TamperedToken() {
+        String token = jwtUtils.generateToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertTrue(jwtUtils.verify(tampered).isEmpty());
+    }
+
+    @Test
+    void verify_ExpiredToken() {
+        JwtUtils expiredIssuer = new JwtUtils(keyStore, -1_000, false);
+        String token = expiredIssuer.generateToken(userDetails);
+
+        assertTrue(jwtUtils.verify(token).isEmpty());
+    }
+
+    @Test
+    void generateToken_NamesSigningKey() {
+        String token = jwtUtils.generateToken(userDetails);
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+                StandardCharsets.UTF_8);
+
+        assertTrue(header.contains("\"alg\":\"RS256\""));
+        assertTrue(header.contains("\"kid\":\"" + keyStore.signingKey().kid() + "\""));
+    }
+
+    @Test
+    void verify_UnknownKey() {
+        JwtKeyStore otherKeys = new JwtKeyStore(keyDir.resolve("other"), 2048, Duration.ofDays(7),
+                Duration.ofHours(1), Duration.ofMinutes(5), Clock.systemUTC(), new SimpleMeterRegistry());
+        otherKeys.start();
+        String token = new JwtUtils(otherKeys, 60_000, false).generateToken(userDetails);
+
+        assertTrue(jwtUtils.verify(token).isEmpty());
+    }
+
+    @Test
+    void verify_RejectsOtherAlgorithms() {
+        String hs256 = Jwts.builder()
+                .setHeaderParam("kid", keyStore.signingKey().kid())
+                .setSubject("test@example.com")
+                .signWith(Keys.hmacShaKeyFor(new byte[32]), SignatureAlgorithm.HS256)
+                .compact();
+        String unsigned = Jwts.builder().setSubject("test@example.com").compact();
+
+        assertTrue(jwtUtils.verify(hs256).isEmpty());
+        assertTrue(jwtUtils.verify(unsigned).isEmpty());
+    }
+
+    @Test
+    void verify_MalformedToken() {
+        assertTrue(jwtUtils.verify("not-a-jwt").isEmpty());
+    }
+
+    @Test
+    void isTokenValid_OtherUser() {
+        String token = jwtUtils.generateToken(userDetails);
+        UserDetails other = new User("other@example.com", "encodedPassword", List.of());
+
+        assertTrue(jwtUtils.isTokenValid(token, userDetails));
+        assertFalse(jwtUtils.isTokenValid(token, other));
+    }
+}
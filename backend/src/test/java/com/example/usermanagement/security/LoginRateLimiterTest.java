@@ -0,0 +1,175 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        // 3 attempts per 3 s per IP, 4 per 4 s per email; lockout after 2 failures for 1 s, doubling up to 4 s
+        limiter = new LoginRateLimiter(3, 3_000, 4, 4_000, 2, 1_000, 4_000, 60_000, 64, meterRegistry, clock);
+    }
+
+    @Test
+    void acquire_LimitsAttemptsPerIp() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("other@example.com", "10.0.0.1"));
+        assertEquals(Duration.ofSeconds(1), ex.getRetryAfter());
+        limiter.acquire("other@example.com", "10.0.0.2");
+
+        clock.advance(1_000);
+        limiter.acquire("other@example.com", "10.0.0.1");
+
+        assertEquals(5, meterRegistry.get("auth.rate_limit").tag("result", "allowed").counter().count());
+        assertEquals(1, meterRegistry.get("auth.rate_limit").tag("reason", "ip").counter().count());
+    }
+
+    @Test
+    void acquire_LimitsAttemptsPerEmailAcrossIps() {
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire("test@example.com", "10.0.0." + i);
+        }
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("TEST@example.com ", "10.0.0.9"));
+        assertEquals(1, meterRegistry.get("auth.rate_limit").tag("reason", "email").counter().count());
+    }
+
+    @Test
+    void acquire_ConcurrentAttemptsNeverExceedTheBurst() throws Exception {
+        LoginRateLimiter burstOfFive = new LoginRateLimiter(5, 60_000, 1_000, 60_000, 2, 1_000, 4_000, 60_000, 64,
+                meterRegistry, clock);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 200; i++) {
+                        try {
+                            burstOfFive.acquire("user" + thread + "-" + i + "@example.com", "10.0.0.1");
+                            admitted.incrementAndGet();
+                        } catch (RateLimitExceededException ex) {
+                            // Expected once the burst is used up
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(5, admitted.get());
+    }
+
+    @Test
+    void recordFailure_LocksOutProgressively() {
+        limiter.recordFailure("test@example.com");
+        limiter.acquire("test@example.com", "10.0.0.1");
+        limiter.recordFailure("test@example.com");
+
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("test@example.com", "10.0.0.1"));
+        assertEquals(Duration.ofSeconds(1), ex.getRetryAfter());
+
+        clock.advance(1_000);
+        limiter.acquire("test@example.com", "10.0.0.1");
+        limiter.recordFailure("test@example.com");
+
+        ex = assertThrows(RateLimitExceededException.class, () -> limiter.acquire("test@example.com", "10.0.0.2"));
+        assertEquals(Duration.ofSeconds(2), ex.getRetryAfter());
+        assertEquals(2, meterRegistry.get("auth.rate_limit").tag("reason", "lockout").counter().count());
+    }
+
+    @Test
+    void recordSuccess_ClearsFailures() {
+        limiter.recordFailure("test@example.com");
+
+        limiter.recordSuccess("test@example.com");
+        limiter.recordFailure("test@example.com");
+
+        limiter.acquire("test@example.com", "10.0.0.1");
+    }
+
+    @Test
+    void recordSuccess_KeepsLockoutOfSharedStripes() {
+        // With two stripes every email shares both of them
+        limiter = new LoginRateLimiter(3, 3_000, 4, 4_000, 2, 1_000, 4_000, 60_000, 2, meterRegistry, clock);
+        limiter.recordFailure("victim@example.com");
+        limiter.recordFailure("victim@example.com");
+
+        limiter.recordSuccess("attacker@example.com");
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("victim@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void recordFailure_ForgottenAfterResetPeriod() {
+        limiter.recordFailure("test@example.com");
+        clock.advance(60_001);
+        limiter.recordFailure("test@example.com");
+
+        limiter.acquire("test@example.com", "10.0.0.1");
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(long millis) {
+            now = now.plusMillis(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor executor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(1, 1, 2_000, meterRegistry);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_RunsOnHashingThread() {
+        String thread = executor.execute(() -> Thread.currentThread().getName());
+
+        // The timer records after the result is handed over; shutting down waits for that
+        executor.shutdown();
+
+        assertTrue(thread.startsWith("password-hashing-"));
+        assertEquals(1, meterRegistry.get("executor").tag("name", "password.hashing").timer().count());
+    }
+
+    @Test
+    void execute_RejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> executor.execute(() -> {
+            started.countDown();
+            return awaitRelease();
+        }));
+        started.await();
+        CompletableFuture.runAsync(() -> executor.execute(this::awaitRelease));
+        awaitQueued(1);
+
+        ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class,
+                () -> executor.execute(() -> "rejected"));
+
+        assertEquals(Duration.ofSeconds(2), ex.getRetryAfter());
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+    }
+
+    @Test
+    void executeAll_PreservesOrder() {
+        List<Supplier<Integer>> tasks = List.of(() -> 1, () -> 2, () -> 3);
+
+        assertEquals(List.of(1, 2, 3), executor.executeAll(tasks));
+    }
+
+    private boolean awaitRelease() {
+        try {
+            return release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            if (meterRegistry.get("executor.queued").tag("name", "password.hashing").gauge().value() >= expected) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Task was not queued");
+    }
+}
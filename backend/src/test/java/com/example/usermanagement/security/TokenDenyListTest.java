@@ -0,0 +1,47 @@
+package com.example.usermanagement.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenDenyListTest {
+
+    private TokenDenyList denyList;
+
+    @BeforeEach
+    void setUp() {
+        denyList = new TokenDenyList(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void isDenied_DeniedTokenUntilExpiry() {
+        UUID id = UUID.randomUUID();
+
+        denyList.deny(id, Instant.now().plus(15, ChronoUnit.MINUTES));
+
+        assertTrue(denyList.isDenied(id));
+        assertFalse(denyList.isDenied(UUID.randomUUID()));
+    }
+
+    @Test
+    void deny_ExpiredTokenIsNotRecorded() {
+        UUID id = UUID.randomUUID();
+
+        denyList.deny(id, Instant.now().minus(1, ChronoUnit.SECONDS));
+
+        assertFalse(denyList.isDenied(id));
+    }
+
+    @Test
+    void isDenied_TokenWithoutId() {
+        denyList.deny(null, Instant.now().plus(15, ChronoUnit.MINUTES));
+
+        assertFalse(denyList.isDenied(null));
+    }
+}
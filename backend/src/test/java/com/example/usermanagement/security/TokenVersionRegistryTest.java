@@ -0,0 +1,127 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserChangedEvent.ChangeType;
+import com.example.usermanagement.event.UserChangesFollowedEvent;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserTokenVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenVersionRegistryTest {
+
+    private static final String EMAIL = "test@example.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    private TokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new TokenVersionRegistry(userRepository, 100, 60_000, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void isCurrent_AcceptsCurrentAndNewerVersionsFromOneLookup() {
+        when(userRepository.findTokenVersionByEmail(EMAIL)).thenReturn(version(2));
+
+        assertTrue(registry.isCurrent(EMAIL, 2));
+        assertTrue(registry.isCurrent(EMAIL, 3));
+        assertFalse(registry.isCurrent(EMAIL, 1));
+        verify(userRepository, times(1)).findTokenVersionByEmail(EMAIL);
+    }
+
+    @Test
+    void isCurrent_RejectsTokensOfUnknownUsers() {
+        when(userRepository.findTokenVersionByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        assertFalse(registry.isCurrent(EMAIL, 0));
+    }
+
+    @Test
+    void currentVersion_ReadsTheDatabaseAndRefreshesTheCache() {
+        when(userRepository.findTokenVersionByEmail(EMAIL)).thenReturn(version(0), version(1));
+        assertTrue(registry.isCurrent(EMAIL, 0));
+
+        assertEquals(1, registry.currentVersion(EMAIL));
+        assertFalse(registry.isCurrent(EMAIL, 0));
+        assertTrue(registry.isCurrent(EMAIL, 1));
+    }
+
+    @Test
+    void onUserChanged_CredentialsChangeRevokesOlderTokens() {
+        when(userRepository.findTokenVersionByEmail(EMAIL)).thenReturn(version(0), version(1));
+        assertTrue(registry.isCurrent(EMAIL, 0));
+
+        registry.onUserChanged(new UserChangedEvent(1L, EMAIL, ChangeType.UPDATED, true, false));
+
+        assertFalse(registry.isCurrent(EMAIL, 0));
+    }
+
+    @Test
+    void onUserChanged_ProfileChangeKeepsCachedVersion() {
+        when(userRepository.findTokenVersionByEmail(EMAIL)).thenReturn(version(0));
+        assertTrue(registry.isCurrent(EMAIL, 0));
+
+        registry.onUserChanged(new UserChangedEvent(1L, EMAIL, ChangeType.UPDATED, false, false));
+
+        assertTrue(registry.isCurrent(EMAIL, 0));
+        verify(userRepository, times(1)).findTokenVersionByEmail(EMAIL);
+    }
+
+    @Test
+    void onChangesFollowed_ChangeOnAnotherInstanceRevokesOlderTokens() {
+        when(userRepository.findTokenVersionByEmail(EMAIL)).thenReturn(version(0), version(1));
+        assertTrue(registry.isCurrent(EMAIL, 0));
+
+        registry.onChangesFollowed(new UserChangesFollowedEvent(List.of(change(UserChange.Type.UPDATED, 1L)), false));
+
+        assertFalse(registry.isCurrent(EMAIL, 0));
+    }
+
+    @Test
+    void onChangesFollowed_CreatedUserIsNoLongerUnknown() {
+        when(userRepository.findTokenVersionByEmail(EMAIL)).thenReturn(Optional.empty(), version(0));
+        assertFalse(registry.isCurrent(EMAIL, 0));
+
+        registry.onChangesFollowed(new UserChangesFollowedEvent(List.of(change(UserChange.Type.CREATED, 1L)), false));
+
+        assertTrue(registry.isCurrent(EMAIL, 0));
+    }
+
+    @Test
+    void onChangesFollowed_LostHistoryDropsEveryVersion() {
+        when(userRepository.findTokenVersionByEmail(EMAIL)).thenReturn(version(0), version(1));
+        assertTrue(registry.isCurrent(EMAIL, 0));
+
+        registry.onChangesFollowed(new UserChangesFollowedEvent(List.of(), true));
+
+        assertFalse(registry.isCurrent(EMAIL, 0));
+    }
+
+    private static Optional<UserTokenVersion> version(int tokenVersion) {
+        return Optional.of(new UserTokenVersion(1L, tokenVersion));
+    }
+
+    private static UserChange change(UserChange.Type type, Long userId) {
+        return UserChange.builder()
+                .type(type)
+                .userId(userId)
+                .user(UserDto.builder().id(userId).email(EMAIL).build())
+                .build();
+    }
+}
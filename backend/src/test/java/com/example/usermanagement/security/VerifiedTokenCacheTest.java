@@ -0,0 +1,76 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserChangedEvent.ChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedTokenCacheTest {
+
+    private VerifiedTokenCache cache;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedTokenCache(100, 60_000, new SimpleMeterRegistry());
+        userDetails = new User("test@example.com", "encodedPassword",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    void get_ReturnsCachedUserDetails() {
+        VerifiedToken verified = verified(Instant.now().plus(1, ChronoUnit.HOURS));
+        cache.put("token", verified, userDetails);
+
+        VerifiedTokenCache.CachedPrincipal cached = cache.get("token").orElseThrow();
+        assertEquals(userDetails, cached.userDetails());
+        assertEquals(verified.id(), cached.tokenId());
+        assertEquals(1, cache.stats().hitCount());
+    }
+
+    @Test
+    void get_UnknownTokenIsMiss() {
+        assertTrue(cache.get("unknown").isEmpty());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void get_ExpiredTokenIsNotReturned() {
+        cache.put("token", verified(Instant.now().minus(1, ChronoUnit.SECONDS)), userDetails);
+
+        assertTrue(cache.get("token").isEmpty());
+    }
+
+    @Test
+    void onUserChanged_CredentialsChangeInvalidatesTokens() {
+        cache.put("token", verified(Instant.now().plus(1, ChronoUnit.HOURS)), userDetails);
+
+        cache.onUserChanged(new UserChangedEvent(1L, "test@example.com", ChangeType.UPDATED, true, false));
+
+        assertTrue(cache.get("token").isEmpty());
+    }
+
+    @Test
+    void onUserChanged_ProfileChangeKeepsTokens() {
+        cache.put("token", verified(Instant.now().plus(1, ChronoUnit.HOURS)), userDetails);
+
+        cache.onUserChanged(new UserChangedEvent(1L, "test@example.com", ChangeType.UPDATED, false, false));
+
+        assertTrue(cache.get("token").isPresent());
+    }
+
+    private static VerifiedToken verified(Instant expiresAt) {
+        return new VerifiedToken(UUID.randomUUID(), "test@example.com", List.of(), VerifiedToken.NO_VERSION, expiresAt);
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.AuditEvent;
+import com.example.usermanagement.repository.AuditRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuditLogTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-01-01T12:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private AuditRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private List<AuditEvent> written;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        written = new CopyOnWriteArrayList<>();
+        // Batches are reused by the writer, so they are copied as they arrive
+        lenient().doAnswer(invocation -> written.addAll(invocation.getArgument(0)))
+                .when(repository).insertAll(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void record_WritesEventsInBatchesWithActorAndClient() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("admin@example.com", null, List.of()));
+        AuditLog auditLog = auditLog(16, 2, AuditLog.OverflowPolicy.DROP, 0);
+        auditLog.start();
+
+        for (long id = 1; id <= 5; id++) {
+            auditLog.record(AuditEvent.Action.USER_DELETED, id, "user" + id + "@example.com", null);
+        }
+        auditLog.stop();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), written.stream().map(AuditEvent::getUserId).toList());
+        AuditEvent first = written.get(0);
+        assertEquals("admin@example.com", first.getActor());
+        assertEquals("10.0.0.7", first.getClientIp());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 12, 0), first.getOccurredAt());
+        verify(repository, atLeast(3)).insertAll(anyList());
+        assertEquals(5, meterRegistry.get("audit.events.written").counter().count());
+    }
+
+    @Test
+    void recordAfterCommit_QueuesOnlyCommittedChanges() {
+        AuditLog auditLog = auditLog(16, 2, AuditLog.OverflowPolicy.DROP, 0);
+        TransactionSynchronizationManager.initSynchronization();
+
+        auditLog.recordAfterCommit(AuditEvent.Action.USER_CREATED, 1L, "committed@example.com", null);
+        auditLog.recordAfterCommit(AuditEvent.Action.USER_CREATED, 2L, "rolled-back@example.com", null);
+        assertEquals(0, bufferSize());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.get(0).afterCommit();
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(1, bufferSize());
+    }
+
+    @Test
+    void record_DropPolicyDiscardsWhenFull() {
+        AuditLog auditLog = auditLog(2, 2, AuditLog.OverflowPolicy.DROP, 0);
+
+        for (long id = 1; id <= 3; id++) {
+            auditLog.record(AuditEvent.Action.LOGIN_FAILED, null, "user@example.com", null);
+        }
+
+        assertEquals(2, bufferSize());
+        assertEquals(1, meterRegistry.get("audit.events.dropped").counter().count());
+    }
+
+    @Test
+    void record_BlockPolicyWaitsForTheWriter() throws Exception {
+        AuditLog auditLog = auditLog(2, 2, AuditLog.OverflowPolicy.BLOCK, 5_000);
+        auditLog.start();
+
+        for (long id = 1; id <= 50; id++) {
+            auditLog.record(AuditEvent.Action.USER_UPDATED, id, "user" + id + "@example.com", null);
+        }
+        auditLog.stop();
+
+        assertEquals(50, written.size());
+        assertEquals(0, meterRegistry.get("audit.events.dropped").counter().count());
+    }
+
+    @Test
+    void record_BlockPolicyGivesUpAfterTimeout() {
+        AuditLog auditLog = auditLog(2, 2, AuditLog.OverflowPolicy.BLOCK, 20);
+        auditLog.record(AuditEvent.Action.LOGIN_FAILED, null, "a@example.com", null);
+        auditLog.record(AuditEvent.Action.LOGIN_FAILED, null, "b@example.com", null);
+
+        long start = System.nanoTime();
+        auditLog.record(AuditEvent.Action.LOGIN_FAILED, null, "c@example.com", null);
+
+        assertTrue(System.nanoTime() - start >= 20_000_000L);
+        assertEquals(1, meterRegistry.get("audit.events.dropped").counter().count());
+    }
+
+    @Test
+    void write_FailedBatchIsRetried() throws Exception {
+        doThrow(new IllegalStateException("database down"))
+                .doAnswer(invocation -> written.addAll(invocation.getArgument(0)))
+                .when(repository).insertAll(anyList());
+        AuditLog auditLog = auditLog(16, 4, AuditLog.OverflowPolicy.DROP, 0);
+        auditLog.start();
+
+        auditLog.record(AuditEvent.Action.LOGIN_SUCCEEDED, 1L, "user@example.com", null);
+        verify(repository, timeout(2_000).times(2)).insertAll(anyList());
+        auditLog.stop();
+
+        assertEquals(1, written.size());
+        assertEquals(1, meterRegistry.get("audit.write.failures").counter().count());
+    }
+
+    @Test
+    void write_DropsOnlyEventsTheDatabaseRejects() throws Exception {
+        doAnswer(invocation -> {
+            List<AuditEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(event -> event.getEmail().startsWith("rejected"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return written.addAll(events);
+        }).when(repository).insertAll(anyList());
+        AuditLog auditLog = auditLog(16, 4, AuditLog.OverflowPolicy.DROP, 0);
+
+        auditLog.record(AuditEvent.Action.LOGIN_FAILED, null, "first@example.com", null);
+        auditLog.record(AuditEvent.Action.LOGIN_FAILED, null, "rejected@example.com", null);
+        auditLog.record(AuditEvent.Action.LOGIN_FAILED, null, "last@example.com", null);
+        auditLog.start();
+        auditLog.stop();
+
+        assertEquals(List.of("first@example.com", "last@example.com"),
+                written.stream().map(AuditEvent::getEmail).toList());
+        assertEquals(1, meterRegistry.get("audit.events.rejected").counter().count());
+        assertEquals(2, meterRegistry.get("audit.events.written").counter().count());
+        assertEquals(0, meterRegistry.get("audit.write.failures").counter().count());
+        assertEquals(0, meterRegistry.get("audit.events.dropped").counter().count());
+    }
+
+    private AuditLog auditLog(int bufferSize, int batchSize, AuditLog.OverflowPolicy policy, long blockTimeoutMillis) {
+        return new AuditLog(repository, new TransactionTemplate(transactionManager), bufferSize, batchSize, 10,
+                policy, blockTimeoutMillis, meterRegistry, CLOCK);
+    }
+
+    private double bufferSize() {
+        return meterRegistry.get("audit.buffer.size").gauge().value();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.usermanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditRingBufferTest {
+
+    @Test
+    void offer_FailsWhenFullUntilDrained() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(drained, 2));
+        assertTrue(buffer.offer(4));
+        assertTrue(buffer.offer(5));
+        assertEquals(4, buffer.drainTo(drained, 10));
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), drained);
+        assertEquals(0, buffer.size());
+        assertEquals(0, buffer.drainTo(drained, 10));
+    }
+
+    @Test
+    void offer_KeepsEveryElementOfConcurrentProducersInTheirOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        AuditRingBuffer<long[]> buffer = new AuditRingBuffer<>(256);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(new long[] { producer, i })) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        long[] next = new long[producers];
+        List<long[]> batch = new ArrayList<>();
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            batch.clear();
+            buffer.drainTo(batch, 100);
+            for (long[] element : batch) {
+                assertEquals(next[(int) element[0]]++, element[1]);
+            }
+            received += batch.size();
+        }
+        executor.shutdown();
+
+        assertEquals(producers * perProducer, received);
+        assertEquals(0, buffer.size());
+    }
+}
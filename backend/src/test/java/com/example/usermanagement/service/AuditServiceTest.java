@@ -0,0 +1,84 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.AuditEvent;
+import com.example.usermanagement.dto.AuditFilter;
+import com.example.usermanagement.dto.AuditPageResponse;
+import com.example.usermanagement.exception.BusinessException;
+import com.example.usermanagement.repository.AuditRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuditServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_000);
+
+    @Mock
+    private AuditRepository auditRepository;
+
+    @InjectMocks
+    private AuditService auditService;
+
+    @Test
+    void getAuditPage_CursorResumesAfterLastEvent() {
+        AuditFilter filter = AuditFilter.builder().from(T0.minusDays(1)).to(T0.plusDays(1)).build();
+        when(auditRepository.findPage(filter, null, 0L, 3))
+                .thenReturn(List.of(event(9, T0), event(8, T0), event(7, T0.minusSeconds(1))));
+
+        AuditPageResponse first = auditService.getAuditPage(null, 2, filter);
+
+        assertEquals(List.of(9L, 8L), first.getItems().stream().map(AuditEvent::getId).toList());
+        assertNotNull(first.getNextCursor());
+
+        when(auditRepository.findPage(filter, T0, 8L, 3)).thenReturn(List.of(event(7, T0.minusSeconds(1))));
+        AuditPageResponse second = auditService.getAuditPage(first.getNextCursor(), 2, filter);
+
+        assertEquals(List.of(7L), second.getItems().stream().map(AuditEvent::getId).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getAuditPage_CapsPageSize() {
+        AuditFilter filter = new AuditFilter();
+        when(auditRepository.findPage(eq(filter), isNull(), anyLong(), anyInt())).thenReturn(List.of());
+
+        auditService.getAuditPage(null, 10_000, filter);
+
+        verify(auditRepository).findPage(filter, null, 0L, AuditService.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void getAuditPage_RejectsEmptyTimeRange() {
+        AuditFilter filter = AuditFilter.builder().from(T0).to(T0).build();
+
+        assertThrows(BusinessException.class, () -> auditService.getAuditPage(null, null, filter));
+        verifyNoInteractions(auditRepository);
+    }
+
+    @Test
+    void getAuditPage_RejectsInvalidCursor() {
+        assertThrows(BusinessException.class, () -> auditService.getAuditPage("not-a-cursor", null, new AuditFilter()));
+        verify(auditRepository, never()).findPage(any(), any(), anyLong(), anyInt());
+    }
+
+    private static AuditEvent event(long id, LocalDateTime occurredAt) {
+        return AuditEvent.builder()
+                .id(id)
+                .occurredAt(occurredAt)
+                .action(AuditEvent.Action.USER_UPDATED)
+                .build();
+    }
+}
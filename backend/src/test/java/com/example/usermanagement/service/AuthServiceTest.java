@@ -1,29 +1,46 @@
 package com.example.usermanagement.service;
 
+import com.example.usermanagement.dto.AuditEvent;
 import com.example.usermanagement.dto.AuthRequest;
 import com.example.usermanagement.dto.AuthResponse;
+import com.example.usermanagement.dto.UserChange;
 import com.example.usermanagement.dto.UserDto;
 import com.example.usermanagement.exception.BusinessException;
 import com.example.usermanagement.model.Role;
 import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.UserChangeOutbox;
 import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.exception.RateLimitExceededException;
+import com.example.usermanagement.security.IssuedToken;
 import com.example.usermanagement.security.JwtUtils;
+import com.example.usermanagement.security.LoginRateLimiter;
+import com.example.usermanagement.security.TokenDenyList;
+import com.example.usermanagement.security.TokenVersionRegistry;
+import com.example.usermanagement.security.VerifiedToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,11 +61,33 @@ public class AuthServiceTest {
     @Mock
     private CustomUserDetailsService userDetailsService;
 
+    @Mock
+    private TokenVersionRegistry tokenVersions;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
+    @Mock
+    private UserChangeOutbox changeOutbox;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @Mock
+    private RefreshTokenService refreshTokens;
+
+    @Mock
+    private TokenDenyList tokenDenyList;
+
     @InjectMocks
     private AuthService authService;
 
     private UserDto userDto;
     private User user;
+    private IssuedToken accessToken;
 
     @BeforeEach
     void setUp() {
@@ -65,24 +104,31 @@ public class AuthServiceTest {
                 .email("test@example.com")
                 .password("encodedPassword")
                 .roles(Set.of(Role.USER))
+                .active(true)
                 .build();
+
+        accessToken = new IssuedToken("jwtToken", UUID.randomUUID(), Instant.now().plusSeconds(900));
     }
 
     @Test
     void register_Success() {
         when(userRepository.existsByEmail(any(String.class))).thenReturn(false);
         when(passwordEncoder.encode(any(String.class))).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
         when(userDetailsService.loadUserByUsername(any(String.class))).thenReturn(mock(UserDetails.class));
-        when(jwtUtils.generateToken(any(UserDetails.class))).thenReturn("jwtToken");
+        when(jwtUtils.issueAccessToken(any(UserDetails.class), anyInt())).thenReturn(accessToken);
+        when(refreshTokens.issue(1L, accessToken)).thenReturn("refreshToken");
 
         AuthResponse response = authService.register(userDto);
 
         assertNotNull(response);
         assertEquals("jwtToken", response.getToken());
+        assertEquals("refreshToken", response.getRefreshToken());
         assertEquals("test@example.com", response.getEmail());
 
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(changeOutbox).append(eq(UserChange.Type.CREATED), any(UserDto.class));
+        verify(auditLog).recordAfterCommit(AuditEvent.Action.REGISTERED, user.getId(), "test@example.com", null);
     }
 
     @Test
@@ -91,7 +137,7 @@ public class AuthServiceTest {
 
         assertThrows(BusinessException.class, () -> authService.register(userDto));
 
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -101,13 +147,71 @@ public class AuthServiceTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(null);
         when(userRepository.findByEmail(any(String.class))).thenReturn(Optional.of(user));
         when(userDetailsService.loadUserByUsername(any(String.class))).thenReturn(mock(UserDetails.class));
-        when(jwtUtils.generateToken(any(UserDetails.class))).thenReturn("jwtToken");
+        when(jwtUtils.issueAccessToken(any(UserDetails.class), anyInt())).thenReturn(accessToken);
+        when(refreshTokens.issue(1L, accessToken)).thenReturn("refreshToken");
 
-        AuthResponse response = authService.login(authRequest);
+        AuthResponse response = authService.login(authRequest, "127.0.0.1");
 
         assertNotNull(response);
         assertEquals("jwtToken", response.getToken());
+        assertEquals("refreshToken", response.getRefreshToken());
         assertEquals("test@example.com", response.getEmail());
+        verify(loginRateLimiter).acquire("test@example.com", "127.0.0.1");
+        verify(loginRateLimiter).recordSuccess("test@example.com");
+        verify(auditLog).record(AuditEvent.Action.LOGIN_SUCCEEDED, user.getId(), "test@example.com", null);
+    }
+
+    @Test
+    void login_ThrottledBeforePasswordCheck() {
+        AuthRequest authRequest = new AuthRequest("test@example.com", "password");
+        doThrow(new RateLimitExceededException("Too many login attempts, please retry later", Duration.ofSeconds(3)))
+                .when(loginRateLimiter).acquire("test@example.com", "127.0.0.1");
+
+        assertThrows(RateLimitExceededException.class, () -> authService.login(authRequest, "127.0.0.1"));
+
+        verifyNoInteractions(authenticationManager);
+        verify(auditLog).record(eq(AuditEvent.Action.LOGIN_THROTTLED), isNull(), eq("test@example.com"), any());
+    }
+
+    @Test
+    void login_BadCredentialsRecordsFailure() {
+        AuthRequest authRequest = new AuthRequest("test@example.com", "wrong");
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertThrows(BadCredentialsException.class, () -> authService.login(authRequest, "127.0.0.1"));
+
+        verify(loginRateLimiter).recordFailure("test@example.com");
+        verify(loginRateLimiter, never()).recordSuccess(any());
+        verify(auditLog).record(AuditEvent.Action.LOGIN_FAILED, null, "test@example.com", "Bad credentials");
+    }
+
+    @Test
+    void login_DisabledUserIsAuditedWithoutLockout() {
+        AuthRequest authRequest = new AuthRequest("test@example.com", "password");
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new DisabledException("User is disabled"));
+
+        assertThrows(DisabledException.class, () -> authService.login(authRequest, "127.0.0.1"));
+
+        verify(loginRateLimiter, never()).recordFailure(any());
+        verify(auditLog).record(AuditEvent.Action.LOGIN_FAILED, null, "test@example.com", "User is disabled");
+    }
+
+    @Test
+    void login_TokenCarriesCurrentVersion() {
+        AuthRequest authRequest = new AuthRequest("test@example.com", "password");
+        UserDetails userDetails = mock(UserDetails.class);
+
+        when(userRepository.findByEmail(any(String.class))).thenReturn(Optional.of(user));
+        when(userDetailsService.loadUserByUsername(any(String.class))).thenReturn(userDetails);
+        when(userDetails.getUsername()).thenReturn("test@example.com");
+        when(tokenVersions.currentVersion("test@example.com")).thenReturn(2);
+        when(jwtUtils.issueAccessToken(userDetails, 2)).thenReturn(accessToken);
+
+        AuthResponse response = authService.login(authRequest, "127.0.0.1");
+
+        assertEquals("jwtToken", response.getToken());
     }
 
     @Test
@@ -117,6 +221,54 @@ public class AuthServiceTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(null);
         when(userRepository.findByEmail(any(String.class))).thenReturn(Optional.empty());
 
-        assertThrows(BusinessException.class, () -> authService.login(authRequest));
+        assertThrows(BusinessException.class, () -> authService.login(authRequest, "127.0.0.1"));
+    }
+
+    @Test
+    void refresh_IssuesSuccessorInSameSession() {
+        RefreshTokenService.Session session = new RefreshTokenService.Session(1L, UUID.randomUUID());
+        when(refreshTokens.exchange("refreshToken")).thenReturn(Optional.of(session));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(mock(UserDetails.class));
+        when(jwtUtils.issueAccessToken(any(UserDetails.class), anyInt())).thenReturn(accessToken);
+        when(refreshTokens.issue(session, accessToken)).thenReturn("nextRefreshToken");
+
+        AuthResponse response = authService.refresh("refreshToken");
+
+        assertEquals("jwtToken", response.getToken());
+        assertEquals("nextRefreshToken", response.getRefreshToken());
+    }
+
+    @Test
+    void refresh_InvalidTokenIsRejected() {
+        when(refreshTokens.exchange("refreshToken")).thenReturn(Optional.empty());
+
+        assertThrows(BadCredentialsException.class, () -> authService.refresh("refreshToken"));
+
+        verifyNoInteractions(jwtUtils);
+    }
+
+    @Test
+    void refresh_DeactivatedUserIsRejected() {
+        user.setActive(false);
+        when(refreshTokens.exchange("refreshToken"))
+                .thenReturn(Optional.of(new RefreshTokenService.Session(1L, UUID.randomUUID())));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertThrows(BadCredentialsException.class, () -> authService.refresh("refreshToken"));
+
+        verifyNoInteractions(jwtUtils);
+    }
+
+    @Test
+    void logout_RevokesSessionAndDeniesAccessToken() {
+        VerifiedToken verified = new VerifiedToken(accessToken.id(), "test@example.com", List.of(), 0,
+                accessToken.expiresAt());
+        when(jwtUtils.verify("jwtToken")).thenReturn(Optional.of(verified));
+
+        authService.logout("refreshToken", "jwtToken");
+
+        verify(refreshTokens).revoke("refreshToken");
+        verify(tokenDenyList).deny(accessToken.id(), accessToken.expiresAt());
     }
 }
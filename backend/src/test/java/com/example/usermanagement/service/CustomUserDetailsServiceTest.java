@@ -0,0 +1,66 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.model.Role;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private CustomUserDetailsService userDetailsService;
+
+    @Test
+    void loadUserByUsername_MapsRolesToAuthorities() {
+        User user = User.builder()
+                .email("test@example.com")
+                .password("$2a$10$legacy")
+                .roles(Set.of(Role.ADMIN))
+                .build();
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername("test@example.com");
+
+        assertEquals("$2a$10$legacy", userDetails.getPassword());
+        assertEquals("ROLE_ADMIN", userDetails.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void loadUserByUsername_NotFound() {
+        when(userRepository.findByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> userDetailsService.loadUserByUsername("missing@example.com"));
+    }
+
+    @Test
+    void updatePassword_StoresUpgradedHash() {
+        UserDetails userDetails = org.springframework.security.core.userdetails.User
+                .withUsername("test@example.com")
+                .password("$2a$10$legacy")
+                .roles("USER")
+                .build();
+
+        UserDetails upgraded = userDetailsService.updatePassword(userDetails, "{bcrypt}$2a$12$upgraded");
+
+        assertEquals("{bcrypt}$2a$12$upgraded", upgraded.getPassword());
+        assertEquals(userDetails.getAuthorities(), upgraded.getAuthorities());
+        verify(userRepository).updatePassword("test@example.com", "{bcrypt}$2a$12$upgraded");
+    }
+}
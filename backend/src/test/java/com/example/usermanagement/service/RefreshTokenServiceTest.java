@@ -0,0 +1,139 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.AuditEvent;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserChangedEvent.ChangeType;
+import com.example.usermanagement.event.UsersChangedEvent;
+import com.example.usermanagement.repository.RefreshTokenRepository;
+import com.example.usermanagement.repository.RefreshTokenRepository.AccessTokenRef;
+import com.example.usermanagement.repository.RefreshTokenRepository.StoredRefreshToken;
+import com.example.usermanagement.security.IssuedToken;
+import com.example.usermanagement.security.TokenDenyList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenServiceTest {
+
+    private static final long LIFETIME = 14L * 24 * 60 * 60 * 1000;
+
+    @Mock
+    private RefreshTokenRepository repository;
+
+    @Mock
+    private TokenDenyList tokenDenyList;
+
+    @Mock
+    private AuditLog auditLog;
+
+    private RefreshTokenService service;
+    private IssuedToken accessToken;
+
+    @BeforeEach
+    void setUp() {
+        service = new RefreshTokenService(repository, tokenDenyList, auditLog, LIFETIME);
+        accessToken = new IssuedToken("jwtToken", UUID.randomUUID(), Instant.now().plusSeconds(900));
+    }
+
+    @Test
+    void issue_StoresDigestInNewFamily() {
+        String first = service.issue(1L, accessToken);
+        String second = service.issue(1L, accessToken);
+
+        ArgumentCaptor<String> hashes = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<UUID> families = ArgumentCaptor.forClass(UUID.class);
+        verify(repository, times(2)).insert(hashes.capture(), eq(1L), families.capture(), any(), any(),
+                eq(new AccessTokenRef(accessToken.id(),
+                        LocalDateTime.ofInstant(accessToken.expiresAt(), ZoneId.systemDefault()))));
+        assertEquals(43, first.length());
+        assertNotEquals(first, second);
+        assertFalse(hashes.getAllValues().contains(first));
+        assertNotEquals(families.getAllValues().get(0), families.getAllValues().get(1));
+    }
+
+    @Test
+    void exchange_MarksTokenUsed() {
+        UUID family = UUID.randomUUID();
+        when(repository.findForUpdate(anyString()))
+                .thenReturn(Optional.of(stored(family, LocalDateTime.now().plusDays(1), false, false)));
+
+        RefreshTokenService.Session session = service.exchange("refreshToken").orElseThrow();
+
+        assertEquals(1L, session.userId());
+        assertEquals(family, session.familyId());
+        verify(repository).markUsed(eq(7L), any());
+        verify(repository, never()).revokeFamily(any(), any());
+    }
+
+    @Test
+    void exchange_ReusedTokenRevokesFamily() {
+        UUID family = UUID.randomUUID();
+        LocalDateTime accessExpiry = LocalDateTime.now().plusMinutes(10);
+        UUID accessTokenId = UUID.randomUUID();
+        when(repository.findForUpdate(anyString()))
+                .thenReturn(Optional.of(stored(family, LocalDateTime.now().plusDays(1), true, false)));
+        when(repository.revokeFamily(eq(family), any()))
+                .thenReturn(List.of(new AccessTokenRef(accessTokenId, accessExpiry)));
+
+        assertTrue(service.exchange("refreshToken").isEmpty());
+
+        verify(repository, never()).markUsed(anyLong(), any());
+        verify(tokenDenyList).deny(accessTokenId, accessExpiry.atZone(ZoneId.systemDefault()).toInstant());
+        verify(auditLog).record(eq(AuditEvent.Action.REFRESH_TOKEN_REUSED), eq(1L), isNull(), any());
+    }
+
+    @Test
+    void exchange_ExpiredOrRevokedTokenIsRejected() {
+        when(repository.findForUpdate(anyString()))
+                .thenReturn(Optional.of(stored(UUID.randomUUID(), LocalDateTime.now().minusSeconds(1), false, false)))
+                .thenReturn(Optional.of(stored(UUID.randomUUID(), LocalDateTime.now().plusDays(1), true, true)));
+
+        assertTrue(service.exchange("expired").isEmpty());
+        assertTrue(service.exchange("revoked").isEmpty());
+
+        verify(repository, never()).markUsed(anyLong(), any());
+        verify(repository, never()).revokeFamily(any(), any());
+    }
+
+    @Test
+    void exchange_UnknownOrMissingToken() {
+        when(repository.findForUpdate(anyString())).thenReturn(Optional.empty());
+
+        assertTrue(service.exchange("unknown").isEmpty());
+        assertTrue(service.exchange(null).isEmpty());
+
+        verify(repository, times(1)).findForUpdate(anyString());
+    }
+
+    @Test
+    void onUsersChanged_RevokesUpdatedCredentialsOnly() {
+        service.onUsersChanged(new UsersChangedEvent(List.of(
+                new UserChangedEvent(1L, "a@example.com", ChangeType.UPDATED, true, false),
+                new UserChangedEvent(2L, "b@example.com", ChangeType.UPDATED, false, false),
+                new UserChangedEvent(3L, "c@example.com", ChangeType.DELETED, true, false))));
+
+        verify(repository).revokeAllOf(eq(List.of(1L)), any());
+    }
+
+    private static StoredRefreshToken stored(UUID family, LocalDateTime expiresAt, boolean used, boolean revoked) {
+        return new StoredRefreshToken(7L, 1L, family, expiresAt, used, revoked);
+    }
+}
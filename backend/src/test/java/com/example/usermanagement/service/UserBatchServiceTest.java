@@ -0,0 +1,162 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.AuditEvent;
+import com.example.usermanagement.dto.UserBatchGetResponse;
+import com.example.usermanagement.dto.UserBatchItemResult;
+import com.example.usermanagement.dto.UserBatchItemResult.Status;
+import com.example.usermanagement.dto.UserBatchPatchRequest;
+import com.example.usermanagement.dto.UserBatchResult;
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UsersChangedEvent;
+import com.example.usermanagement.exception.BusinessException;
+import com.example.usermanagement.model.Role;
+import com.example.usermanagement.repository.UserBatchRepository;
+import com.example.usermanagement.repository.UserChangeOutbox;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserBatchServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserBatchRepository userBatchRepository;
+
+    @Mock
+    private UserChangeOutbox changeOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AuditLog auditLog;
+
+    private UserBatchService userBatchService;
+
+    @BeforeEach
+    void setUp() {
+        userBatchService = new UserBatchService(userRepository, userBatchRepository, changeOutbox,
+                new TransactionTemplate(transactionManager), eventPublisher, auditLog, 2);
+    }
+
+    @Test
+    void getUsers_ReturnsFoundUsersInRequestOrder() {
+        List<UserSummary> summaries = List.of(summary(1L), summary(3L));
+        when(userRepository.findSummariesByIdIn(List.of(3L, 1L))).thenReturn(summaries);
+        when(userRepository.findSummariesByIdIn(List.of(7L))).thenReturn(List.of());
+
+        UserBatchGetResponse response = userBatchService.getUsers(List.of(3L, 1L, 3L, 7L));
+
+        assertEquals(List.of(3L, 1L), response.getUsers().stream().map(UserDto::getId).toList());
+        assertEquals(List.of(7L), response.getNotFound());
+    }
+
+    @Test
+    void patchUsers_ReportsEachIdAndPublishesChangedUsers() {
+        when(userBatchRepository.lockExisting(List.of(1L, 2L))).thenReturn(emails(1L, 2L));
+        when(userBatchRepository.lockExisting(List.of(3L))).thenReturn(Map.of());
+        when(userBatchRepository.updateActive(Set.of(1L, 2L), false)).thenReturn(List.of(2L));
+        UserSummary updated = summary(2L);
+        when(userRepository.findSummariesByIdIn(List.of(2L))).thenReturn(List.of(updated));
+        UserBatchPatchRequest request = UserBatchPatchRequest.builder()
+                .ids(List.of(1L, 2L, 3L))
+                .active(false)
+                .build();
+
+        UserBatchResult result = userBatchService.patchUsers(request);
+
+        assertEquals(List.of(Status.UNCHANGED, Status.UPDATED, Status.NOT_FOUND),
+                result.getResults().stream().map(UserBatchItemResult::getStatus).toList());
+        assertEquals(1, result.getChanged());
+        verify(userBatchRepository).bumpVersions(Set.of(2L));
+        verify(userBatchRepository).evictAfterCommit(Set.of(2L), false);
+        verify(changeOutbox).appendAll(eq(UserChange.Type.UPDATED), any());
+        ArgumentCaptor<UsersChangedEvent> event = ArgumentCaptor.forClass(UsersChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(List.of(new UserChangedEvent(2L, "user2@example.com", UserChangedEvent.ChangeType.UPDATED, true, false)),
+                event.getValue().changes());
+        verify(auditLog).recordAfterCommit(AuditEvent.Action.USER_UPDATED, 2L, "user2@example.com",
+                "Batch: set active=false");
+    }
+
+    @Test
+    void patchUsers_RequiresAChange() {
+        UserBatchPatchRequest request = UserBatchPatchRequest.builder().ids(List.of(1L)).build();
+
+        assertThrows(BusinessException.class, () -> userBatchService.patchUsers(request));
+    }
+
+    @Test
+    void patchUsers_RejectsAddingAndRemovingSameRole() {
+        UserBatchPatchRequest request = UserBatchPatchRequest.builder()
+                .ids(List.of(1L))
+                .addRole(Role.ADMIN)
+                .removeRole(Role.ADMIN)
+                .build();
+
+        assertThrows(BusinessException.class, () -> userBatchService.patchUsers(request));
+    }
+
+    @Test
+    void deleteUsers_FailedChunkIsReportedWithoutStoppingOthers() {
+        when(userBatchRepository.lockExisting(List.of(1L, 2L))).thenThrow(new QueryTimeoutException("timeout"));
+        when(userBatchRepository.lockExisting(List.of(3L))).thenReturn(emails(3L));
+        UserSummary deleted = summary(3L);
+        when(userRepository.findSummariesByIdIn(List.of(3L))).thenReturn(List.of(deleted));
+
+        UserBatchResult result = userBatchService.deleteUsers(List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(Status.FAILED, Status.FAILED, Status.DELETED),
+                result.getResults().stream().map(UserBatchItemResult::getStatus).toList());
+        assertEquals(2, result.getFailed());
+        verify(transactionManager).rollback(any());
+        verify(userBatchRepository).deleteAll(Set.of(3L));
+        verify(userBatchRepository).evictAfterCommit(Set.of(3L), true);
+        verify(changeOutbox).appendAll(eq(UserChange.Type.DELETED), any());
+    }
+
+    @Test
+    void deleteUsers_RequiresIds() {
+        assertThrows(BusinessException.class, () -> userBatchService.deleteUsers(List.of()));
+    }
+
+    private static Map<Long, String> emails(Long... ids) {
+        Map<Long, String> emails = new LinkedHashMap<>();
+        for (Long id : ids) {
+            emails.put(id, "user" + id + "@example.com");
+        }
+        return emails;
+    }
+
+    private static UserSummary summary(Long id) {
+        UserSummary summary = mock(UserSummary.class);
+        when(summary.getId()).thenReturn(id);
+        return summary;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.dto.UserChangesResponse;
+import com.example.usermanagement.exception.BusinessException;
+import com.example.usermanagement.exception.ChangeHistoryExpiredException;
+import com.example.usermanagement.repository.UserChangeOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserChangeFeedTest {
+
+    @Mock
+    private UserChangeOutbox outbox;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        feed = new UserChangeFeed(outbox, meterRegistry);
+    }
+
+    @Test
+    void poll_ReturnsAvailableChangesAtOnce() {
+        when(outbox.findPublishedAfter(5L, UserChangeFeed.DEFAULT_LIMIT)).thenReturn(List.of(change(6), change(8)));
+
+        DeferredResult<UserChangesResponse> result = feed.poll(5L, null, 10);
+
+        UserChangesResponse response = (UserChangesResponse) result.getResult();
+        assertEquals(2, response.getChanges().size());
+        assertEquals(8L, response.getNext());
+    }
+
+    @Test
+    void poll_WithoutSinceStartsFromLatestPosition() {
+        when(outbox.findLatestPosition()).thenReturn(12L);
+
+        DeferredResult<UserChangesResponse> result = feed.poll(null, 50, 0);
+
+        UserChangesResponse response = (UserChangesResponse) result.getResult();
+        assertTrue(response.getChanges().isEmpty());
+        assertEquals(12L, response.getNext());
+        verify(outbox).findPublishedAfter(12L, 50);
+    }
+
+    @Test
+    void poll_WaitsUntilRelayPublishes() {
+        when(outbox.findLatestPosition()).thenReturn(5L, 5L, 7L);
+        when(outbox.findPublishedAfter(5L, UserChangeFeed.DEFAULT_LIMIT)).thenReturn(List.of());
+        when(outbox.findPublishedAfter(5L, UserChangeFeed.MAX_LIMIT)).thenReturn(List.of(change(7)));
+
+        DeferredResult<UserChangesResponse> result = feed.poll(5L, null, 10);
+        assertFalse(result.hasResult());
+        assertEquals(1, meterRegistry.get("users.changes.waiters").gauge().value());
+
+        feed.wakeUp();
+        assertFalse(result.hasResult());
+        feed.wakeUp();
+
+        assertEquals(7L, ((UserChangesResponse) result.getResult()).getNext());
+    }
+
+    @Test
+    void wakeUp_AnswersEveryWaiterFromOneRead() {
+        when(outbox.findLatestPosition()).thenReturn(5L, 6L, 8L);
+        when(outbox.findPublishedAfter(5L, 1)).thenReturn(List.of());
+        when(outbox.findPublishedAfter(6L, UserChangeFeed.DEFAULT_LIMIT)).thenReturn(List.of());
+        when(outbox.findPublishedAfter(5L, UserChangeFeed.MAX_LIMIT))
+                .thenReturn(List.of(change(6), change(7), change(8)));
+        DeferredResult<UserChangesResponse> behind = feed.poll(5L, 1, 10);
+        DeferredResult<UserChangesResponse> ahead = feed.poll(6L, null, 10);
+
+        feed.wakeUp();
+
+        UserChangesResponse first = (UserChangesResponse) behind.getResult();
+        assertEquals(List.of(change(6)), first.getChanges());
+        assertEquals(6L, first.getNext());
+        UserChangesResponse second = (UserChangesResponse) ahead.getResult();
+        assertEquals(List.of(change(7), change(8)), second.getChanges());
+        assertEquals(8L, second.getNext());
+        verify(outbox, times(1)).findPublishedAfter(5L, UserChangeFeed.MAX_LIMIT);
+        verify(outbox, never()).findPublishedAfter(6L, UserChangeFeed.MAX_LIMIT);
+    }
+
+    @Test
+    void poll_RejectsPrunedPosition() {
+        when(outbox.findPrunedThrough()).thenReturn(100L);
+
+        assertThrows(ChangeHistoryExpiredException.class, () -> feed.poll(99L, null, 0));
+    }
+
+    @Test
+    void poll_RejectsTooLongWait() {
+        assertThrows(BusinessException.class, () -> feed.poll(0L, null, UserChangeFeed.MAX_WAIT_SECONDS + 1));
+    }
+
+    private static UserChange change(long position) {
+        return UserChange.builder()
+                .eventId(position)
+                .position(position)
+                .type(UserChange.Type.UPDATED)
+                .userId(1L)
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.event.UserChangesFollowedEvent;
+import com.example.usermanagement.repository.UserChangeOutbox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserChangeFollowerTest {
+
+    @Mock
+    private UserChangeOutbox outbox;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private UserChangeFollower follower;
+
+    @BeforeEach
+    void setUp() {
+        follower = new UserChangeFollower(outbox, eventPublisher, 2);
+    }
+
+    @Test
+    void follow_PublishesBatchesFromLatestPosition() {
+        List<UserChange> first = List.of(change(11), change(12));
+        List<UserChange> second = List.of(change(13));
+        when(outbox.findLatestPosition()).thenReturn(10L);
+        when(outbox.findPublishedAfter(10, 2)).thenReturn(first);
+        when(outbox.findPublishedAfter(12, 2)).thenReturn(second);
+
+        follower.start();
+        follower.follow();
+
+        verify(eventPublisher).publishEvent(new UserChangesFollowedEvent(first, false));
+        verify(eventPublisher).publishEvent(new UserChangesFollowedEvent(second, false));
+        verify(outbox).findPublishedAfter(10, 2);
+        verify(outbox).findPublishedAfter(12, 2);
+    }
+
+    @Test
+    void follow_ReportsLostHistoryWhenChangesWerePruned() {
+        when(outbox.findLatestPosition()).thenReturn(10L, 50L);
+        when(outbox.findPrunedThrough()).thenReturn(20L);
+        when(outbox.findPublishedAfter(10, 2)).thenReturn(List.of(change(21)));
+
+        follower.start();
+        follower.follow();
+
+        verify(eventPublisher).publishEvent(new UserChangesFollowedEvent(List.of(), true));
+        verifyNoMoreInteractions(eventPublisher);
+
+        follower.follow();
+
+        verify(outbox).findPublishedAfter(50, 2);
+    }
+
+    @Test
+    void follow_DoesNothingBeforeStart() {
+        follower.follow();
+
+        verify(outbox, never()).findPublishedAfter(anyLong(), anyInt());
+    }
+
+    private static UserChange change(long position) {
+        return UserChange.builder().eventId(position).position(position).type(UserChange.Type.UPDATED).build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.repository.UserChangeOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserChangeRelayTest {
+
+    @Mock
+    private UserChangeOutbox outbox;
+
+    @Mock
+    private UserChangeSink sink;
+
+    @Mock
+    private UserChangeFeed feed;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserChangeRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new UserChangeRelay(outbox, sink, feed, new TransactionTemplate(transactionManager), 2, 60_000,
+                meterRegistry);
+    }
+
+    @Test
+    void relay_PublishesBatchesUntilOutboxIsDrained() {
+        List<UserChange> first = List.of(change(1), change(2));
+        List<UserChange> second = List.of(change(3));
+        when(outbox.tryLockRelay()).thenReturn(true);
+        when(outbox.findUnpublished(2)).thenReturn(first, second);
+
+        relay.relay();
+
+        verify(outbox).markPublished(first);
+        verify(sink).publish(first);
+        verify(sink).publish(second);
+        verify(transactionManager, times(2)).commit(any());
+        verify(feed).wakeUp();
+        assertEquals(3, meterRegistry.get("users.changes.relayed").counter().count());
+    }
+
+    @Test
+    void relay_SkipsWhenAnotherRelayHoldsTheLock() {
+        when(outbox.tryLockRelay()).thenReturn(false);
+
+        relay.relay();
+
+        verify(outbox, never()).findUnpublished(anyInt());
+        verify(feed).wakeUp();
+    }
+
+    @Test
+    void relay_RollsBackWhenSinkFails() {
+        List<UserChange> batch = List.of(change(1));
+        when(outbox.tryLockRelay()).thenReturn(true);
+        when(outbox.findUnpublished(2)).thenReturn(batch);
+        doThrow(new IllegalStateException("sink down")).when(sink).publish(batch);
+
+        relay.relay();
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(feed).wakeUp();
+        assertEquals(1, meterRegistry.get("users.changes.relay.failures").counter().count());
+    }
+
+    private static UserChange change(long id) {
+        return UserChange.builder()
+                .eventId(id)
+                .type(UserChange.Type.CREATED)
+                .userId(id)
+                .build();
+    }
+}
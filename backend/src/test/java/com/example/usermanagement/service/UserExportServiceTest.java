@@ -0,0 +1,88 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserFileFormat;
+import com.example.usermanagement.model.Role;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserRoleRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserExportServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserExportService userExportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        userExportService = new UserExportService(userRepository, objectMapper);
+
+        when(userRepository.streamAllWithRoles()).thenReturn(Stream.of(
+                new UserRoleRow(1L, "Admin", "admin@example.com", CREATED, true, Role.ADMIN),
+                new UserRoleRow(1L, "Admin", "admin@example.com", CREATED, true, Role.USER),
+                new UserRoleRow(2L, "Doe, Jane", "jane@example.com", CREATED, false, null)));
+    }
+
+    @Test
+    void exportUsers_Ndjson_OneLinePerUser() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.exportUsers(UserFileFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"roles\":[\"ADMIN\",\"USER\"]"));
+        assertTrue(lines[1].contains("\"email\":\"jane@example.com\""));
+        assertTrue(lines[1].contains("\"roles\":[]"));
+    }
+
+    @Test
+    void exportUsers_Csv_QuotesFieldsWithCommas() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.exportUsers(UserFileFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,name,email,roles,createDate,active", lines[0]);
+        assertEquals("1,Admin,admin@example.com,ADMIN;USER,2024-01-02T03:04:05,true", lines[1]);
+        assertEquals("2,\"Doe, Jane\",jane@example.com,,2024-01-02T03:04:05,false", lines[2]);
+    }
+
+    @Test
+    void exportUsers_Csv_NeutralisesFormulas() throws Exception {
+        when(userRepository.streamAllWithRoles()).thenReturn(Stream.of(
+                new UserRoleRow(3L, "=HYPERLINK(\"http://evil\")", "@sum@example.com", CREATED, true, null),
+                new UserRoleRow(4L, "-2+3", "\tx@example.com", CREATED, true, null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.exportUsers(UserFileFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("3,\"'=HYPERLINK(\"\"http://evil\"\")\",\"'@sum@example.com\",,2024-01-02T03:04:05,true",
+                lines[1]);
+        assertEquals("4,\"'-2+3\",\"'\tx@example.com\",,2024-01-02T03:04:05,true", lines[2]);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.dto.UserFileFormat;
+import com.example.usermanagement.dto.UserImportError;
+import com.example.usermanagement.dto.UserImportResult;
+import com.example.usermanagement.event.UsersCreatedEvent;
+import com.example.usermanagement.model.Role;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.UserBatchRepository;
+import com.example.usermanagement.repository.UserChangeOutbox;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.security.OffloadedPasswordEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserImportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserBatchRepository userBatchRepository;
+
+    @Mock
+    private UserChangeOutbox changeOutbox;
+
+    @Mock
+    private OffloadedPasswordEncoder passwordEncoder;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AuditLog auditLog;
+
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        userImportService = new UserImportService(userRepository, userBatchRepository, changeOutbox, passwordEncoder,
+                new ObjectMapper(), new TransactionTemplate(transactionManager), eventPublisher, auditLog, 2);
+        lenient().when(passwordEncoder.encodeAll(anyList())).thenAnswer(invocation ->
+                ((List<String>) invocation.getArgument(0)).stream().map(raw -> "hashed-" + raw).toList());
+        lenient().when(userBatchRepository.reserveIds(anyInt())).thenAnswer(invocation ->
+                java.util.stream.LongStream.rangeClosed(1, (int) invocation.getArgument(0)).boxed().toList());
+    }
+
+    @Test
+    void importUsers_Ndjson_ReportsRowErrors() {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("taken@example.com"));
+        String upload = String.join("\n",
+                "{\"name\":\"A\",\"email\":\"a@example.com\",\"password\":\"pw\"}",
+                "{not json",
+                "",
+                "{\"name\":\"B\",\"email\":\"b@example.com\"}",
+                "{\"name\":\"C\",\"email\":\"taken@example.com\",\"password\":\"pw\"}",
+                "{\"name\":\"D\",\"email\":\"d@example.com\",\"password\":\"pw\",\"roles\":[\"ADMIN\"]}");
+
+        UserImportResult result = userImportService.importUsers(UserFileFormat.NDJSON, stream(upload));
+
+        assertEquals(5, result.getProcessed());
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(2L, 4L, 5L), result.getErrors().stream().map(UserImportError::getLine).toList());
+        assertEquals("Email already exists", result.getErrors().get(2).getMessage());
+
+        ArgumentCaptor<List<User>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(userBatchRepository, times(2)).insertAll(inserted.capture());
+        User d = inserted.getAllValues().get(1).get(0);
+        assertEquals("hashed-pw", d.getPassword());
+        assertEquals(Set.of(Role.ADMIN), d.getRoles());
+        assertNotNull(d.getId());
+    }
+
+    @Test
+    void importUsers_Csv_ParsesRolesAndDuplicates() {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        String upload = "name,email,password,roles,active\n"
+                + "\"Doe, Jane\",jane@example.com,pw,ADMIN;USER,false\n"
+                + "Dup,jane@example.com,pw,,\n"
+                + "Bad,bad@example.com,pw,ROOT,\n";
+
+        UserImportResult result = userImportService.importUsers(UserFileFormat.CSV, stream(upload));
+
+        assertEquals(3, result.getProcessed());
+        assertEquals(1, result.getImported());
+        assertEquals("Duplicate email in upload", result.getErrors().get(0).getMessage());
+        assertEquals("Unknown role", result.getErrors().get(1).getMessage());
+
+        ArgumentCaptor<List<User>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(userBatchRepository).insertAll(inserted.capture());
+        User jane = inserted.getValue().get(0);
+        assertEquals("Doe, Jane", jane.getName());
+        assertEquals(Set.of(Role.ADMIN, Role.USER), jane.getRoles());
+        assertFalse(jane.getActive());
+    }
+
+    @Test
+    void importUsers_ComparesEmailsIgnoringCase() {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("taken@example.com"));
+        String upload = String.join("\n",
+                "{\"name\":\"A\",\"email\":\"Ann@example.com\",\"password\":\"pw\"}",
+                "{\"name\":\"B\",\"email\":\"ann@EXAMPLE.com\",\"password\":\"pw\"}",
+                "{\"name\":\"C\",\"email\":\"Taken@Example.com\",\"password\":\"pw\"}");
+
+        UserImportResult result = userImportService.importUsers(UserFileFormat.NDJSON, stream(upload));
+
+        assertEquals(1, result.getImported());
+        assertEquals("Duplicate email in upload", result.getErrors().get(0).getMessage());
+        assertEquals("Email already exists", result.getErrors().get(1).getMessage());
+        verify(userRepository).findExistingEmails(List.of("ann@example.com"));
+        verify(userRepository).findExistingEmails(List.of("taken@example.com"));
+    }
+
+    @Test
+    void importUsers_ConstraintViolationFailsOnlyThatChunk() {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        doThrow(new DuplicateKeyException("duplicate"))
+                .doNothing()
+                .when(userBatchRepository).insertAll(anyList());
+        String upload = String.join("\n",
+                "{\"name\":\"A\",\"email\":\"a@example.com\",\"password\":\"pw\"}",
+                "{\"name\":\"B\",\"email\":\"b@example.com\",\"password\":\"pw\"}",
+                "{\"name\":\"C\",\"email\":\"c@example.com\",\"password\":\"pw\"}");
+
+        UserImportResult result = userImportService.importUsers(UserFileFormat.NDJSON, stream(upload));
+
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getFailed());
+        verify(transactionManager).rollback(any());
+        verify(changeOutbox).appendAll(eq(UserChange.Type.CREATED), anyList());
+        verify(eventPublisher).publishEvent(new UsersCreatedEvent(List.of(1L)));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserChange;
+import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserChangedEvent.ChangeType;
+import com.example.usermanagement.event.UserChangesFollowedEvent;
+import com.example.usermanagement.event.UsersCreatedEvent;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserSearchIndexTest {
+
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSearchIndex(userRepository);
+        when(userRepository.findAllSummaries()).thenReturn(List.of(
+                summary(1L, "Nguyễn Văn An", "an@example.com"),
+                summary(2L, "Anna Smith", "anna.smith@example.com"),
+                summary(3L, "Brian Nguyen", "brian@example.com"),
+                summary(4L, "Đặng Thu Hà", "ha.dang@example.org")));
+        index.rebuild();
+    }
+
+    @Test
+    void search_RanksLeadingPrefixBeforeWordPrefix() {
+        assertEquals(List.of(2L, 1L), ids(index.search("an", 10)));
+        assertEquals(List.of(1L, 3L), ids(index.search("nguyen", 10)));
+    }
+
+    @Test
+    void search_ExactEmailRanksFirst() {
+        assertEquals(List.of(1L), ids(index.search("AN@example.com", 10)).subList(0, 1));
+    }
+
+    @Test
+    void search_IgnoresAccents() {
+        assertEquals(List.of(4L), ids(index.search("dang thu", 10)));
+        assertEquals(List.of(1L), ids(index.search("Nguyễn Văn", 10)));
+    }
+
+    @Test
+    void search_MatchesSubstring() {
+        assertEquals(List.of(2L), ids(index.search("mith", 10)));
+        assertEquals(List.of(4L), ids(index.search("example.org", 10)));
+    }
+
+    @Test
+    void search_MatchesWithinEditDistance() {
+        assertEquals(List.of(2L), ids(index.search("smyth", 10)));
+        assertEquals(List.of(3L), ids(index.search("brien ng", 10)));
+        assertTrue(index.search("xyz", 10).isEmpty());
+    }
+
+    @Test
+    void search_AppliesLimit() {
+        assertEquals(1, index.search("example", 1).size());
+    }
+
+    @Test
+    void onUsersCreated_IndexesNewUsers() {
+        when(userRepository.findSummariesByIdIn(List.of(5L)))
+                .thenReturn(List.of(summary(5L, "Zoe Tran", "zoe@example.com")));
+
+        index.onUsersCreated(new UsersCreatedEvent(List.of(5L)));
+
+        assertEquals(List.of(5L), ids(index.search("zoe", 10)));
+    }
+
+    @Test
+    void onUserChanged_ReindexesAndRemoves() {
+        when(userRepository.findSummariesByIdIn(List.of(2L)))
+                .thenReturn(List.of(summary(2L, "Anna Jones", "anna.jones@example.com")));
+
+        index.onUserChanged(new UserChangedEvent(2L, "anna.smith@example.com", ChangeType.UPDATED, true, false));
+
+        assertTrue(index.search("smith", 10).isEmpty());
+        assertEquals(List.of(2L), ids(index.search("jones", 10)));
+
+        index.onUserChanged(new UserChangedEvent(2L, "anna.jones@example.com", ChangeType.DELETED, true, false));
+
+        assertTrue(index.search("anna", 10).isEmpty());
+    }
+
+    @Test
+    void onUserChanged_KeepsNewerVersion() {
+        index.onChangesFollowed(new UserChangesFollowedEvent(List.of(
+                change(UserChange.Type.UPDATED, user(2L, "Anna Jones", 3L))), false));
+        when(userRepository.findSummariesByIdIn(List.of(2L)))
+                .thenReturn(List.of(summary(2L, "Anna Brown", "anna@example.com", 2L)));
+
+        index.onUserChanged(new UserChangedEvent(2L, "anna@example.com", ChangeType.UPDATED, true, false));
+
+        assertEquals(List.of(2L), ids(index.search("jones", 10)));
+        assertTrue(index.search("brown", 10).isEmpty());
+    }
+
+    @Test
+    void onUserChanged_DoesNotRestoreUserRemovedDuringRead() {
+        when(userRepository.findSummariesByIdIn(List.of(2L))).thenAnswer(invocation -> {
+            index.onUserChanged(new UserChangedEvent(2L, "anna.smith@example.com", ChangeType.DELETED, true, false));
+            return List.of(summary(2L, "Anna Smith", "anna.smith@example.com"));
+        });
+
+        index.onUserChanged(new UserChangedEvent(2L, "anna.smith@example.com", ChangeType.UPDATED, true, false));
+
+        assertTrue(index.search("anna", 10).isEmpty());
+    }
+
+    @Test
+    void onChangesFollowed_AppliesChangesFromOtherInstances() {
+        index.onChangesFollowed(new UserChangesFollowedEvent(List.of(
+                change(UserChange.Type.CREATED, user(5L, "Zoe Tran", 0L)),
+                change(UserChange.Type.DELETED, user(2L, "Anna Smith", 1L))), false));
+
+        assertEquals(List.of(5L), ids(index.search("zoe", 10)));
+        assertTrue(index.search("smith", 10).isEmpty());
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void onChangesFollowed_RebuildsWhenHistoryLost() {
+        when(userRepository.findAllSummaries()).thenReturn(List.of(summary(5L, "Zoe Tran", "zoe@example.com")));
+
+        index.onChangesFollowed(new UserChangesFollowedEvent(List.of(), true));
+
+        assertEquals(List.of(5L), ids(index.search("zoe", 10)));
+        assertTrue(index.search("anna", 10).isEmpty());
+    }
+
+    @Test
+    void distance_StopsAtBound() {
+        assertEquals(0, UserSearchIndex.distance("smith", "smith", 2));
+        assertEquals(1, UserSearchIndex.distance("smith", "smyth", 2));
+        assertEquals(2, UserSearchIndex.distance("smith", "smiht", 2));
+        assertEquals(3, UserSearchIndex.distance("smith", "jones", 2));
+    }
+
+    private static List<Long> ids(List<UserDto> users) {
+        return users.stream().map(UserDto::getId).toList();
+    }
+
+    private static UserChange change(UserChange.Type type, UserDto user) {
+        return UserChange.builder().type(type).userId(user.getId()).user(user).build();
+    }
+
+    private static UserDto user(Long id, String name, Long version) {
+        return UserDto.builder().id(id).name(name).email(id + "@example.net").version(version).build();
+    }
+
+    private static UserSummary summary(Long id, String name, String email) {
+        return summary(id, name, email, null);
+    }
+
+    private static UserSummary summary(Long id, String name, String email, Long version) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", id);
+        columns.put("name", name);
+        columns.put("email", email);
+        columns.put("roles", "USER");
+        columns.put("active", true);
+        columns.put("version", version);
+        return PROJECTIONS.createProjection(UserSummary.class, columns);
+    }
+}
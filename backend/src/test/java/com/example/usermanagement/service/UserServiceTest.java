@@ -1,19 +1,35 @@
 package com.example.usermanagement.service;
 
+import com.example.usermanagement.dto.AuditEvent;
+import com.example.usermanagement.dto.UserChange;
 import com.example.usermanagement.dto.UserDto;
+import com.example.usermanagement.dto.UserFilter;
+import com.example.usermanagement.dto.UserPageResponse;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UsersCreatedEvent;
 import com.example.usermanagement.exception.BusinessException;
+import com.example.usermanagement.exception.PreconditionFailedException;
 import com.example.usermanagement.model.Role;
 import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.UserChangeOutbox;
 import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -24,12 +40,26 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class UserServiceTest {
 
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserSearchIndex searchIndex;
+
+    @Mock
+    private UserChangeOutbox changeOutbox;
+
+    @Mock
+    private AuditLog auditLog;
+
     @InjectMocks
     private UserService userService;
 
@@ -45,6 +75,7 @@ public class UserServiceTest {
                 .password("encodedPassword")
                 .roles(Set.of(Role.USER))
                 .active(true)
+                .version(3L)
                 .build();
 
         userDto = UserDto.builder()
@@ -57,13 +88,55 @@ public class UserServiceTest {
 
     @Test
     void getAllUsers_Success() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(userRepository.findAllSummaries()).thenReturn(List.of(summary(user, "ADMIN,USER")));
 
         List<UserDto> result = userService.getAllUsers();
 
         assertFalse(result.isEmpty());
         assertEquals(1, result.size());
         assertEquals(user.getEmail(), result.get(0).getEmail());
+        assertEquals(Set.of(Role.ADMIN, Role.USER), result.get(0).getRoles());
+    }
+
+    @Test
+    void getUserPage_ReturnsNextCursorWhenMoreRows() {
+        UserFilter filter = UserFilter.builder().role(Role.USER).build();
+        when(userRepository.findPageIds(0L, null, Role.USER, null, null, PageRequest.of(0, 2)))
+                .thenReturn(List.of(1L, 2L));
+        when(userRepository.findSummariesByIdIn(List.of(1L))).thenReturn(List.of(summary(user, null)));
+
+        UserPageResponse page = userService.getUserPage(null, 1, filter);
+
+        assertEquals(1, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+
+        when(userRepository.findPageIds(1L, null, Role.USER, null, null, PageRequest.of(0, 2)))
+                .thenReturn(List.of());
+
+        UserPageResponse last = userService.getUserPage(page.getNextCursor(), 1, filter);
+
+        assertTrue(last.getItems().isEmpty());
+        assertNull(last.getNextCursor());
+        assertTrue(page.getItems().get(0).getRoles().isEmpty());
+        verify(userRepository, times(1)).findSummariesByIdIn(any());
+    }
+
+    @Test
+    void getUserPage_CapsPageSize() {
+        when(userRepository.findPageIds(0L, null, null, null, null,
+                PageRequest.of(0, UserService.MAX_PAGE_SIZE + 1))).thenReturn(List.of());
+
+        UserPageResponse page = userService.getUserPage(null, 10_000, new UserFilter());
+
+        assertTrue(page.getItems().isEmpty());
+    }
+
+    @Test
+    void getUserPage_InvalidCursor() {
+        UserFilter filter = new UserFilter();
+
+        assertThrows(BusinessException.class, () -> userService.getUserPage("not a cursor", 10, filter));
+        assertThrows(BusinessException.class, () -> userService.getUserPage("AAAA", 10, filter));
     }
 
     @Test
@@ -83,6 +156,22 @@ public class UserServiceTest {
         assertThrows(BusinessException.class, () -> userService.getUserById(1L));
     }
 
+    @Test
+    void searchUsers_CapsLimit() {
+        when(searchIndex.search("test", UserService.MAX_SEARCH_LIMIT)).thenReturn(List.of(UserService.mapToDto(user)));
+
+        List<UserDto> result = userService.searchUsers("test", 1000);
+
+        assertEquals(1, result.size());
+        verify(userRepository, never()).findAllSummaries();
+    }
+
+    @Test
+    void searchUsers_BlankQuery() {
+        assertThrows(BusinessException.class, () -> userService.searchUsers(" ", null));
+        verifyNoInteractions(searchIndex);
+    }
+
     @Test
     void createUser_Success() {
         when(userRepository.existsByEmail(any(String.class))).thenReturn(false);
@@ -94,6 +183,8 @@ public class UserServiceTest {
         assertNotNull(result);
         assertEquals(user.getEmail(), result.getEmail());
         verify(userRepository, times(1)).save(any(User.class));
+        verify(changeOutbox).append(UserChange.Type.CREATED, result);
+        verify(eventPublisher).publishEvent(new UsersCreatedEvent(List.of(1L)));
     }
 
     @Test
@@ -107,34 +198,97 @@ public class UserServiceTest {
     @Test
     void updateUser_Success() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
         UserDto updateRequest = UserDto.builder()
                 .name("Updated Name")
                 .email("test@example.com")
                 .build();
 
-        UserDto result = userService.updateUser(1L, updateRequest);
+        UserDto result = userService.updateUser(1L, updateRequest, 3L);
 
         assertNotNull(result);
         assertEquals("Updated Name", result.getName());
+        assertEquals(3L, result.getVersion());
+        UserChangedEvent event = captureChangedEvent();
+        assertFalse(event.credentialsChanged());
+        assertFalse(event.emailChanged());
+        assertEquals(0, user.getTokenVersion());
+        verify(changeOutbox).append(UserChange.Type.UPDATED, result);
+        verify(auditLog).recordAfterCommit(AuditEvent.Action.USER_UPDATED, 1L, "test@example.com", "Changed name");
+    }
+
+    @Test
+    void updateUser_StaleVersion() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        UserDto updateRequest = UserDto.builder()
+                .name("Updated Name")
+                .email("test@example.com")
+                .build();
+
+        assertThrows(PreconditionFailedException.class, () -> userService.updateUser(1L, updateRequest, 2L));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+        verify(changeOutbox, never()).append(any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+        verifyNoInteractions(auditLog);
+    }
+
+    @Test
+    void updateUser_RoleChangePublishesCredentialsChange() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+
+        UserDto updateRequest = UserDto.builder()
+                .name("Test User")
+                .email("test@example.com")
+                .roles(Set.of(Role.ADMIN))
+                .build();
+
+        userService.updateUser(1L, updateRequest, null);
+
+        UserChangedEvent event = captureChangedEvent();
+        assertTrue(event.credentialsChanged());
+        assertEquals("test@example.com", event.email());
+        assertEquals(1, user.getTokenVersion());
     }
 
     @Test
     void deleteUser_Success() {
-        when(userRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(userRepository).deleteById(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        doNothing().when(userRepository).delete(user);
 
         userService.deleteUser(1L);
 
-        verify(userRepository, times(1)).deleteById(1L);
+        verify(userRepository, times(1)).delete(user);
+        verify(changeOutbox).append(UserChange.Type.DELETED, UserService.mapToDto(user));
+        assertEquals(UserChangedEvent.ChangeType.DELETED, captureChangedEvent().type());
+        verify(auditLog).recordAfterCommit(AuditEvent.Action.USER_DELETED, 1L, "test@example.com", null);
     }
 
     @Test
     void deleteUser_NotFound() {
-        when(userRepository.existsById(1L)).thenReturn(false);
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(BusinessException.class, () -> userService.deleteUser(1L));
-        verify(userRepository, never()).deleteById(anyLong());
+        verify(userRepository, never()).delete(any(User.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private UserChangedEvent captureChangedEvent() {
+        ArgumentCaptor<UserChangedEvent> captor = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        return captor.getValue();
+    }
+
+    private static UserSummary summary(User user, String roles) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", user.getId());
+        columns.put("name", user.getName());
+        columns.put("email", user.getEmail());
+        columns.put("roles", roles);
+        columns.put("createDate", user.getCreateDate());
+        columns.put("active", user.getActive());
+        return PROJECTIONS.createProjection(UserSummary.class, columns);
     }
 }
@@ -1,4 +1,4 @@
-import axios from 'axios';
+import axios, { AxiosError, InternalAxiosRequestConfig } from 'axios';
 
 const api = axios.create({
     baseURL: '/api', // Proxy will handle to http://localhost:8080/api
@@ -20,14 +20,52 @@ api.interceptors.request.use(
     }
 );
 
+// Refresh tokens rotate on every use, so concurrent failures share a single refresh
+let refreshing: Promise<string> | null = null;
+
+const refreshAccessToken = (): Promise<string> => {
+    if (!refreshing) {
+        const refreshToken = localStorage.getItem('refreshToken');
+        refreshing = (refreshToken
+            ? axios.post('/api/auth/refresh', { refreshToken }).then((response) => {
+                localStorage.setItem('token', response.data.token);
+                localStorage.setItem('refreshToken', response.data.refreshToken);
+                return response.data.token as string;
+            })
+            : Promise.reject(new Error('No refresh token'))
+        ).finally(() => {
+            refreshing = null;
+        });
+    }
+    return refreshing;
+};
+
+const redirectToLogin = () => {
+    localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
+    if (window.location.pathname !== '/login') {
+        window.location.href = '/login';
+    }
+};
+
 api.interceptors.response.use(
     (response) => response,
-    (error) => {
-        if (error.response && error.response.status === 403) {
-            // Token invalid or expired
-            localStorage.removeItem('token');
-            if (window.location.pathname !== '/login') {
-                window.location.href = '/login';
+    async (error: AxiosError) => {
+        const original = error.config as (InternalAxiosRequestConfig & { _retried?: boolean }) | undefined;
+        const status = error.response?.status;
+        if ((status === 401 || status === 403) && original && !original.url?.startsWith('/auth/')) {
+            // Access token expired or revoked: renew it once, then give up
+            if (!original._retried) {
+                original._retried = true;
+                try {
+                    const token = await refreshAccessToken();
+                    original.headers.Authorization = `Bearer ${token}`;
+                    return api(original);
+                } catch {
+                    redirectToLogin();
+                }
+            } else {
+                redirectToLogin();
             }
         }
         return Promise.reject(error);
@@ -1,5 +1,6 @@
 import React, { useState } from 'react';
 import { useNavigate } from 'react-router-dom';
+import axios from 'axios';
 import api from '../api/axiosConfig';
 import { useAuth } from '../context/AuthContext';
 
@@ -15,10 +16,15 @@ const LoginPage: React.FC = () => {
         setError('');
         try {
             const response = await api.post('/auth/login', { email, password });
-            login(response.data.token);
+            login(response.data.token, response.data.refreshToken);
             navigate('/users');
         } catch (err) {
-            setError('Invalid credentials');
+            if (axios.isAxiosError(err) && err.response?.status === 429) {
+                const retryAfter = err.response.headers['retry-after'];
+                setError(`Too many login attempts. Try again in ${retryAfter ?? 'a few'} seconds.`);
+            } else {
+                setError('Invalid credentials');
+            }
             console.error(err);
         }
     };
@@ -8,16 +8,20 @@ interface User {
     email: string;
     roles: string[]; // Set<Role> comes as array
     active: boolean;
+    version?: number;
 }
 
 const UserList: React.FC = () => {
     const [users, setUsers] = useState<User[]>([]);
     const [isModalOpen, setIsModalOpen] = useState(false);
     const [currentUser, setCurrentUser] = useState<User | null>(null);
+    const [query, setQuery] = useState('');
 
-    const fetchUsers = async () => {
+    const fetchUsers = async (search: string = query) => {
         try {
-            const response = await api.get('/users');
+            const response = search.trim()
+                ? await api.get('/users/search', { params: { q: search.trim(), limit: 100 } })
+                : await api.get('/users');
             setUsers(response.data);
         } catch (error) {
             console.error('Error fetching users:', error);
@@ -25,8 +29,10 @@ const UserList: React.FC = () => {
     };
 
     useEffect(() => {
-        fetchUsers();
-    }, []);
+        // Debounce typing so each keystroke does not send a search request
+        const timer = setTimeout(() => fetchUsers(query), query.trim() ? 250 : 0);
+        return () => clearTimeout(timer);
+    }, [query]);
 
     const handleDelete = async (id: number) => {
         if (window.confirm('Are you sure?')) {
@@ -58,6 +64,13 @@ const UserList: React.FC = () => {
         <div className="container px-4 mx-auto mt-10">
             <div className="flex items-center justify-between mb-6">
                 <h2 className="text-2xl font-bold">User Management</h2>
+                <input
+                    type="search"
+                    value={query}
+                    onChange={(e) => setQuery(e.target.value)}
+                    placeholder="Search by name or email"
+                    className="w-72 px-3 py-2 border rounded"
+                />
                 <button
                     onClick={handleAdd}
                     className="px-4 py-2 font-bold text-white bg-green-500 rounded hover:bg-green-700"
@@ -1,4 +1,5 @@
 import React, { useState, useEffect } from 'react';
+import axios from 'axios';
 import api from '../api/axiosConfig';
 
 interface UserModalProps {
@@ -49,14 +50,20 @@ const UserModal: React.FC<UserModalProps> = ({ user, onClose, onSave }) => {
         e.preventDefault();
         try {
             if (user) {
-                await api.put(`/users/${user.id}`, formData);
+                // Refused with 412 if someone else saved the user after it was loaded
+                const headers = user.version != null ? { 'If-Match': `"${user.version}"` } : {};
+                await api.put(`/users/${user.id}`, formData, { headers });
             } else {
                 await api.post('/users', formData);
             }
             onSave();
         } catch (error) {
             console.error('Error saving user:', error);
-            alert('Failed to save user');
+            if (axios.isAxiosError(error) && error.response?.status === 412) {
+                alert('This user was changed by someone else. Please reload and try again.');
+            } else {
+                alert('Failed to save user');
+            }
         }
     };
 
@@ -1,5 +1,6 @@
 import React, { createContext, useContext, useState, useEffect } from 'react';
 import { jwtDecode } from 'jwt-decode';
+import api from '../api/axiosConfig';
 
 interface User {
     sub: string;
@@ -10,7 +11,7 @@ interface User {
 interface AuthContextType {
     isAuthenticated: boolean;
     user: User | null;
-    login: (token: string) => void;
+    login: (token: string, refreshToken: string) => void;
     logout: () => void;
 }
 
@@ -25,8 +26,8 @@ export const AuthProvider: React.FC<{ children: React.ReactNode }> = ({ children
         if (token) {
             try {
                 const decoded = jwtDecode<any>(token);
-                // Check expiration
-                if (decoded.exp * 1000 > Date.now()) {
+                // Expired access tokens are renewed on the first request while the refresh token lasts
+                if (decoded.exp * 1000 > Date.now() || localStorage.getItem('refreshToken')) {
                     setIsAuthenticated(true);
                     setUser({
                         sub: decoded.sub,
@@ -41,8 +42,9 @@ export const AuthProvider: React.FC<{ children: React.ReactNode }> = ({ children
         }
     }, []);
 
-    const login = (token: string) => {
+    const login = (token: string, refreshToken: string) => {
         localStorage.setItem('token', token);
+        localStorage.setItem('refreshToken', refreshToken);
         const decoded = jwtDecode<any>(token);
         setIsAuthenticated(true);
         setUser({
@@ -52,7 +54,16 @@ export const AuthProvider: React.FC<{ children: React.ReactNode }> = ({ children
     };
 
     const logout = () => {
+        const token = localStorage.getItem('token');
+        const refreshToken = localStorage.getItem('refreshToken');
+        if (refreshToken) {
+            // Best effort: the session ends locally either way. The access token is passed
+            // explicitly since it is cleared before the request goes out.
+            api.post('/auth/logout', { refreshToken }, { headers: { Authorization: `Bearer ${token}` } })
+                .catch(() => undefined);
+        }
         localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
         setIsAuthenticated(false);
         setUser(null);
     };